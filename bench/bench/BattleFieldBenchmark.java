@@ -0,0 +1,169 @@
+package bench;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import exception.NotInFieldException;
+import exception.ShipException;
+import model.BattleField;
+import model.ship.Ship;
+import model.ship.factory.ShipFactory;
+
+/**
+ * Benchmarks of the operations of a battlefield.
+ *
+ * shootAll and placeFleet work on a new battlefield at each invocation, their
+ * time is the time of a whole battlefield or a whole fleet.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BattleFieldBenchmark {
+
+	@Param({"10", "100", "1000"})
+	public int size;
+
+	/** Part of the cases covered by the ships */
+	@Param({"0.2"})
+	public double coverage;
+
+	private static final int LOOKUPS = 4096;
+
+	private ShipFactory fleet;
+	private BattleField board, halfShot;
+	private int[] xs, ys, order;
+	private int[] orderX, orderY;
+	private byte[] results;
+	// legal layout of the fleet
+	private int[] shipX, shipY, shipWidth;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws ShipException {
+		final Random rand = new Random(42);
+		fleet = Boards.fleet(size, coverage);
+		board = Boards.board(size, fleet);
+		halfShot = Boards.board(size, fleet);
+		Boards.fill(halfShot, 0.5, rand);
+
+		xs = new int[LOOKUPS];
+		ys = new int[LOOKUPS];
+		for(int i = 0; i < LOOKUPS; i++) {
+			xs[i] = rand.nextInt(size);
+			ys[i] = rand.nextInt(size);
+		}
+
+		// every case in a random order
+		order = new int[size * size];
+		for(int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		for(int i = order.length - 1; i > 0; i--) {
+			final int j = rand.nextInt(i + 1);
+			final int t = order[i];
+			order[i] = order[j];
+			order[j] = t;
+		}
+		orderX = new int[order.length];
+		orderY = new int[order.length];
+		for(int i = 0; i < order.length; i++) {
+			orderX[i] = order[i] % size;
+			orderY[i] = order[i] / size;
+		}
+		results = new byte[order.length];
+
+		List<Ship> layout = fleet.getShips();
+		Boards.place(new BattleField(size), layout);
+		shipX = new int[layout.size()];
+		shipY = new int[layout.size()];
+		shipWidth = new int[layout.size()];
+		for(int i = 0; i < layout.size(); i++) {
+			shipX[i] = layout.get(i).getX();
+			shipY[i] = layout.get(i).getY();
+			shipWidth[i] = layout.get(i).getWidth();
+		}
+	}
+
+
+	/**
+	 * New battlefield and new fleet for each invocation
+	 */
+	@State(Scope.Thread)
+	public static class Fresh {
+
+		BattleField board;
+		List<Ship> ships;
+
+		@Setup(Level.Invocation)
+		public void setUp(BattleFieldBenchmark b) throws ShipException {
+			board = Boards.board(b.size, b.fleet);
+			ships = b.fleet.getShips();
+		}
+	}
+
+
+	@Benchmark
+	public int shootAll(Fresh fresh) throws NotInFieldException {
+		int hits = 0;
+		for(int c : order) {
+			if(fresh.board.receiveShot(c % size, c / size)) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * The same shots as shootAll, received as a single salvo
+	 */
+	@Benchmark
+	public int shootAllSalvo(Fresh fresh) throws NotInFieldException {
+		return fresh.board.receiveShots(orderX, orderY, results);
+	}
+
+	@Benchmark
+	public Ship getShip() throws NotInFieldException {
+		final int i = next++ & (LOOKUPS - 1);
+		return board.getShip(xs[i], ys[i]);
+	}
+
+	@Benchmark
+	public BattleField placeFleet(Fresh fresh) throws NotInFieldException {
+		BattleField b = new BattleField(size);
+		for(int i = 0; i < fresh.ships.size(); i++) {
+			final Ship s = fresh.ships.get(i);
+			if(s.getWidth() != shipWidth[i]) {
+				s.changeOrientation();
+			}
+			s.setPosition(shipX[i], shipY[i]);
+			b.placeShip(s);
+		}
+		return b;
+	}
+
+	/**
+	 * Copy of a battlefield half shot, as done by a search at each move
+	 */
+	@Benchmark
+	public BattleField copy() {
+		return halfShot.copy();
+	}
+
+	@Benchmark
+	public boolean won() {
+		return halfShot.won();
+	}
+
+}
@@ -0,0 +1,75 @@
+package bench;
+
+import java.util.List;
+import java.util.Random;
+
+import exception.NotInFieldException;
+import exception.ShipException;
+import model.BattleField;
+import model.ship.Ship;
+import model.ship.factory.ModernShipFactory;
+import model.ship.factory.ShipFactory;
+import model.strategy.PlacementConstraintStrategy;
+
+/**
+ * Battlefields used by the benchmarks
+ *
+ */
+final class Boards {
+
+	/** Cases of a cruiser and a gondola */
+	private static final int PAIR = 16 + 2;
+
+	private Boards() {
+	}
+
+	/**
+	 * Fleet covering a part of a battlefield, with as many cruisers as gondolas
+	 * @param size size of the battlefield
+	 * @param coverage part of the cases covered by the ships
+	 * @return factory giving the fleet
+	 */
+	static ShipFactory fleet(int size, double coverage) {
+		final int pairs = Math.max(1, (int) (coverage * size * size / PAIR));
+		return ModernShipFactory.fleet(pairs, pairs);
+	}
+
+	/**
+	 * Battlefield with a fleet placed
+	 * @param size size of the battlefield
+	 * @param fleet ships to place
+	 * @return the battlefield
+	 * @throws ShipException if the fleet does not fit
+	 */
+	static BattleField board(int size, ShipFactory fleet) throws ShipException {
+		BattleField b = new BattleField(size);
+		place(b, fleet.getShips());
+		return b;
+	}
+
+	/**
+	 * Place ships on a battlefield
+	 * @param b battlefield
+	 * @param ships ships to place
+	 * @throws ShipException if the ships do not fit
+	 */
+	static void place(BattleField b, List<Ship> ships) throws ShipException {
+		PlacementConstraintStrategy.getInstance().placeShips(b, ships);
+	}
+
+	/**
+	 * Shoot random untouched cases of a battlefield
+	 * @param b battlefield
+	 * @param fill part of the cases to shoot
+	 * @param rand random generator
+	 * @throws NotInFieldException
+	 */
+	static void fill(BattleField b, double fill, Random rand) throws NotInFieldException {
+		final int shots = (int) (fill * b.size() * b.size());
+		for(int i = 0; i < shots && b.untouchedCount() > 0; i++) {
+			final int k = rand.nextInt(b.untouchedCount());
+			b.receiveShot(b.untouchedX(k), b.untouchedY(k));
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import exception.ShipException;
+import model.Model;
+import model.ModelArchive;
+import model.ModelDAO;
+import model.ship.factory.ShipFactory;
+import model.strategy.ComputerStrategyFactory;
+import model.strategy.PlacementConstraintStrategy;
+
+/**
+ * Benchmark of the save of a game in a file and of its load, the opponent
+ * battlefield being half shot, then of the same in an archive of 1000 games.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PersistenceBenchmark {
+
+	@Param({"10", "100", "1000"})
+	public int size;
+
+	private Path dir;
+	private String fn;
+	private Model model;
+	private ModelDAO dao;
+	private ModelArchive archive;
+	private long id;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, ShipException {
+		final ShipFactory fleet = Boards.fleet(size, 0.2);
+		model = new Model();
+		model.newGame(size, fleet, ComputerStrategyFactory.getInstance().newStrategy(ComputerStrategyFactory.RANDOM),
+				PlacementConstraintStrategy.getInstance(), 42);
+		model.placeShipComputer();
+		Boards.fill(model.getOpponent(), 0.5, new Random(42));
+
+		dao = ModelDAO.getInstance();
+		dir = Files.createTempDirectory("bench");
+		fn = dir.resolve("game").toString();
+		dao.save(model, fn);
+
+		archive = new ModelArchive(dir.resolve("games.archive"));
+		for(int i = 0; i < 1000; i++) {
+			archive.save(i, model);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		archive.close();
+		Files.deleteIfExists(dir.resolve("games.archive"));
+		Files.deleteIfExists(dir.resolve("game.souss"));
+		Files.delete(dir);
+	}
+
+	@Benchmark
+	public void save() throws IOException {
+		dao.save(model, fn);
+	}
+
+	@Benchmark
+	public Model load() throws IOException {
+		return dao.load(fn + ".souss");
+	}
+
+	@Benchmark
+	public Model roundTrip() throws IOException {
+		dao.save(model, fn);
+		return dao.load(fn + ".souss");
+	}
+
+	@Benchmark
+	public int archiveSave() throws IOException {
+		return archive.save(id++ % 1000, model);
+	}
+
+	@Benchmark
+	public Model archiveLoad() throws IOException {
+		return archive.load(id++ % 1000);
+	}
+
+}
@@ -0,0 +1,77 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import exception.NotPlaceableException;
+import exception.ShipException;
+import model.BattleField;
+import model.ship.Ship;
+import model.ship.factory.ShipFactory;
+import model.strategy.PlacementConstraintStrategy;
+import model.strategy.PlacementRandomStrategy;
+import model.strategy.PlacementStrategy;
+
+/**
+ * Benchmark of the placement of a whole fleet on an empty battlefield.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlacementBenchmark {
+
+	@Param({"Random", "Constraint"})
+	public String strategy;
+
+	@Param({"10", "100"})
+	public int size;
+
+	/** Part of the cases covered by the ships */
+	@Param({"0.1", "0.3", "0.5"})
+	public double coverage;
+
+	private ShipFactory fleet;
+	private PlacementStrategy placement;
+	private BattleField board;
+	private List<Ship> ships;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		fleet = Boards.fleet(size, coverage);
+		placement = "Constraint".equals(strategy)
+				? PlacementConstraintStrategy.getInstance()
+				: PlacementRandomStrategy.getInstance();
+	}
+
+	@Setup(Level.Invocation)
+	public void newBoard() {
+		board = new BattleField(size);
+		ships = fleet.getShips();
+	}
+
+	/**
+	 * The random placement gives up on dense fleets : the time of a failed
+	 * placement is measured as well
+	 */
+	@Benchmark
+	public BattleField placeShips() throws ShipException {
+		try {
+			placement.placeShips(board, ships);
+		} catch (NotPlaceableException e) {
+			return null;
+		}
+		return board;
+	}
+
+}
@@ -0,0 +1,82 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import exception.NotInFieldException;
+import exception.ShipException;
+import model.BattleField;
+import model.GameRandom;
+import model.ship.factory.ShipFactory;
+import model.strategy.ComputerStrategy;
+import model.strategy.ComputerStrategyFactory;
+
+/**
+ * Benchmark of the shots of the computer strategies on a battlefield already
+ * partly shot.
+ *
+ * Each invocation plays SHOTS shots on a new battlefield, after a first shot
+ * letting the strategy build its state, so the time is the time of a shot
+ * during a game.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StrategyBenchmark {
+
+	private static final int SHOTS = 16;
+
+	@Param({"Random", "Cross", "Density", "MonteCarlo"})
+	public String strategy;
+
+	@Param({"10", "100"})
+	public int size;
+
+	/** Part of the cases already shot */
+	@Param({"0.0", "0.5", "0.8"})
+	public double fill;
+
+	private ShipFactory fleet;
+	private Random rand;
+	private GameRandom seeds;
+	private BattleField board;
+	private ComputerStrategy strat;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		fleet = Boards.fleet(size, 0.2);
+		rand = new Random(42);
+		seeds = new GameRandom(42);
+	}
+
+	@Setup(Level.Invocation)
+	public void newBoard() throws ShipException {
+		board = Boards.board(size, fleet);
+		Boards.fill(board, fill, rand);
+		strat = ComputerStrategyFactory.getInstance().newStrategy(strategy, fleet);
+		strat.setRandom(seeds.split());
+		strat.shot(board);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SHOTS)
+	public BattleField shot() throws NotInFieldException {
+		for(int i = 0; i < SHOTS && board.untouchedCount() > 0; i++) {
+			strat.shot(board);
+		}
+		return board;
+	}
+
+}
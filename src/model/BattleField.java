@@ -1,7 +1,10 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import exception.NotInFieldException;
@@ -11,157 +14,545 @@ import model.ship.Ship;
 
 /**
  * 2D field with ships on it
+ *
+ * Shots and occupancy are kept in packed bitboards (one bit per case, row
+ * after row) and each case knows the index of the ship covering it, so every
+ * per-case query is a constant time lookup. The untouched cases are also
+ * kept in a pool allowing to draw one of them in constant time, the cases
+ * shot being kept after the pool in the order of the shots, and the ships
+ * and cases left to sink are counted as the shots are received.
+ *
+ * The damages are kept in the battlefield as well (the shots and the number
+ * of cases left to each ship), so copy() only copies a few arrays : the
+ * ships and the layout arrays are shared until one of the battlefields
+ * places a ship.
  * @author Victor
  *
  */
 public class BattleField implements Serializable {
-	
+
+	private static final long serialVersionUID = 6181693608009754954L;
+
+	private static final int NO_SHIP = -1;
+
 	private List<Ship> ships;
+	/**
+	 * Serialized form of the shots, kept as it was before the bitboards so
+	 * that former saves can still be read. Only set on the serialized form.
+	 */
 	private boolean[][] touched;
-	
-	
+	private transient int size;
+	private transient long[] shots;
+	private transient long[] occupied;
+	private transient int[] shipIndex;
+	private transient int[] untouched;
+	private transient int[] untouchedPos;
+	private transient int nbUntouched;
+	private transient int lastShot = -1;
+	private transient byte lastResult = Ship.MISS;
+	private transient int remainingShips;
+	private transient int remainingCells;
+	/** Cases not shot yet of each ship, by index of ship */
+	private transient int[] shipLeft;
+	/** ships, occupied and shipIndex are shared with a copy */
+	private transient boolean shared;
+	/** copy of a battlefield : the shared ships are not damaged by its shots */
+	private transient boolean fork;
+
+
 	/**
-	 * 
+	 *
 	 * @param x abscissa of the position
 	 * @param y ordinate of theposition
 	 * @return true if the position is invalid
 	 */
 	private boolean invalidPos(int x, int y) {
-		return x < 0 || x >= size() || y < 0 || y >= size();
+		return x < 0 || x >= size || y < 0 || y >= size;
+	}
+
+	/**
+	 * Index of a case in the bitboards
+	 * @param x abscissa
+	 * @param y ordinate
+	 * @return index of the case
+	 */
+	private int cell(int x, int y) {
+		return y * size + x;
 	}
 
-	
+	private static boolean get(long[] board, int c) {
+		return (board[c >>> 6] & (1L << c)) != 0;
+	}
+
+	private static void set(long[] board, int c) {
+		board[c >>> 6] |= 1L << c;
+	}
+
+
 	/**
 	 * Construct a battlefield
 	 * @param size of the battlefield
 	 */
 	public BattleField(int size) {
-		this.touched = new boolean[size][size];
 		this.ships = new ArrayList<Ship>();
+		init(size);
+	}
+
+	/**
+	 * Allocate empty bitboards for the given size
+	 * @param size of the battlefield
+	 */
+	private void init(int size) {
+		this.size = size;
+		final int cells = size * size;
+		this.shots = new long[(cells + 63) >>> 6];
+		this.occupied = new long[shots.length];
+		this.shipIndex = new int[cells];
+		Arrays.fill(shipIndex, NO_SHIP);
+		this.untouched = new int[cells];
+		this.untouchedPos = new int[cells];
+		for(int c=0; c < cells; c++) {
+			untouched[c] = c;
+			untouchedPos[c] = c;
+		}
+		this.nbUntouched = cells;
+		this.remainingShips = 0;
+		this.remainingCells = 0;
+		this.shipLeft = new int[4];
+	}
+
+	private BattleField(BattleField b) {
+		ships = b.ships;
+		size = b.size;
+		shots = b.shots.clone();
+		occupied = b.occupied;
+		shipIndex = b.shipIndex;
+		untouched = b.untouched.clone();
+		untouchedPos = b.untouchedPos.clone();
+		nbUntouched = b.nbUntouched;
+		lastShot = b.lastShot;
+		lastResult = b.lastResult;
+		remainingShips = b.remainingShips;
+		remainingCells = b.remainingCells;
+		shipLeft = b.shipLeft.clone();
+		shared = true;
+		fork = true;
+	}
+
+	/**
+	 * Serialized form of a battlefield, only holding its serialized fields
+	 */
+	private BattleField(List<Ship> ships, boolean[][] touched) {
+		this.ships = ships;
+		this.touched = touched;
+	}
+
+	/**
+	 * Copy the battlefield, to play shots on it without changing this one.
+	 * The copy shares the ships of this battlefield and does not damage them :
+	 * on the copy, use destroyed and touched rather than the state of the ships.
+	 * @return a copy of the battlefield
+	 */
+	public BattleField copy() {
+		shared = true;
+		return new BattleField(this);
 	}
-	
+
 	/**
 	 * Size of the battlefield (in cases)
 	 * @return size of the battlefield (in cases)
 	 */
 	public int size() {
-		return touched.length;
+		return size;
 	}
-	
-	
+
+
 	/**
 	 * Receive a shot at a given position on the field
 	 * @param x absissa
 	 * @param y ordinate
 	 * @return true if a ship was touched
-	 * @throws NotInFieldException 
+	 * @throws NotInFieldException
 	 */
 	public boolean receiveShot(int x, int y) throws NotInFieldException {
+		return shoot(x, y) != Ship.MISS;
+	}
+
+	/**
+	 * Receive a shot at a given position on the field, telling what it did
+	 * @param x absissa
+	 * @param y ordinate
+	 * @return Ship.MISS, Ship.HIT, Ship.SUNK if the shot destroyed a ship, or
+	 * Ship.ALREADY_HIT if the case of the ship was already hit
+	 * @throws NotInFieldException
+	 */
+	public byte shoot(int x, int y) throws NotInFieldException {
 		if(invalidPos(x, y)) throw new NotInFieldException();
-		
-		touched[x][y] = true;
-		for(Ship s : ships) {
-			if(s.receiveShot(x, y)) {
-				return true;
+
+		return hit(x, y);
+	}
+
+	/**
+	 * Receive a salvo : all the positions are checked before any shot is
+	 * done, then they are shot in order
+	 * @param xs abscissas of the shots
+	 * @param ys ordinates of the shots
+	 * @param results receives the outcome of each shot (see shoot)
+	 * @return number of shots which touched a ship
+	 * @throws NotInFieldException if a position is out of the field, no shot
+	 * being done
+	 */
+	public int receiveShots(int[] xs, int[] ys, byte[] results) throws NotInFieldException {
+		final int n = xs.length;
+		if(ys.length != n || results.length < n) {
+			throw new IllegalArgumentException("salvo of " + n + " shots with " + ys.length + " ordinates and "
+					+ results.length + " results");
+		}
+		for(int i = 0; i < n; i++) {
+			if(invalidPos(xs[i], ys[i])) throw new NotInFieldException();
+		}
+		int touched = 0;
+		for(int i = 0; i < n; i++) {
+			results[i] = hit(xs[i], ys[i]);
+			if(results[i] != Ship.MISS) {
+				touched++;
 			}
 		}
-		return false;
+		return touched;
+	}
+
+	/**
+	 * Shoot a case of the field
+	 * @param x absissa, in the field
+	 * @param y ordinate, in the field
+	 * @return outcome of the shot (see shoot)
+	 */
+	private byte hit(int x, int y) {
+		final int c = cell(x, y);
+		final boolean again = get(shots, c);
+		if(!again) {
+			set(shots, c);
+			removeUntouched(c);
+		}
+		lastShot = c;
+		final int i = shipIndex[c];
+		if(i == NO_SHIP) {
+			lastResult = Ship.MISS;
+		} else if(again) {
+			lastResult = Ship.ALREADY_HIT;
+		} else {
+			if(!fork) {
+				ships.get(i).receiveShot(x, y);
+			}
+			remainingCells--;
+			if(--shipLeft[i] == 0) {
+				remainingShips--;
+				lastResult = Ship.SUNK;
+			} else {
+				lastResult = Ship.HIT;
+			}
+		}
+		return lastResult;
+	}
+
+
+	/**
+	 * Remove a case from the untouched pool, moving the last case of the pool
+	 * in its place. The case goes just after the pool, so the cases shot are
+	 * kept at the end of the array, the first one shot last.
+	 * @param c index of the case
+	 */
+	private void removeUntouched(int c) {
+		final int pos = untouchedPos[c];
+		final int last = untouched[--nbUntouched];
+		untouched[pos] = last;
+		untouchedPos[last] = pos;
+		untouched[nbUntouched] = c;
+		untouchedPos[c] = nbUntouched;
+	}
+
+	/**
+	 * Number of cases which have been shot
+	 * @return size * size - untouchedCount()
+	 */
+	public int shotCount() {
+		return untouched.length - nbUntouched;
+	}
+
+	/**
+	 * Case shot, in the order of the shots : shooting the same cases in the
+	 * same order on a new battlefield gives the same untouched pool
+	 * @param i index of the shot, from 0 to shotCount() excluded
+	 * @return index of the case (y * size + x)
+	 */
+	public int shotCase(int i) {
+		return untouched[untouched.length - 1 - i];
+	}
+
+	/**
+	 * Number of cases which have not been shot yet
+	 * @return number of untouched cases
+	 */
+	public int untouchedCount() {
+		return nbUntouched;
+	}
+
+	/**
+	 * Abscissa of an untouched case. Drawing i uniformly between 0 and
+	 * untouchedCount() gives an untouched case uniformly.
+	 * @param i index in the untouched pool, from 0 to untouchedCount() excluded
+	 * @return abscissa of the case
+	 */
+	public int untouchedX(int i) {
+		return untouched[i] % size;
+	}
+
+	/**
+	 * Ordinate of an untouched case
+	 * @param i index in the untouched pool, from 0 to untouchedCount() excluded
+	 * @return ordinate of the case
+	 */
+	public int untouchedY(int i) {
+		return untouched[i] / size;
+	}
+
+
+	/**
+	 * Abscissa of the last shot received
+	 * @return abscissa of the last shot, or -1 if no shot was received
+	 */
+	public int lastShotX() {
+		return lastShot < 0 ? -1 : lastShot % size;
+	}
+
+	/**
+	 * Ordinate of the last shot received
+	 * @return ordinate of the last shot, or -1 if no shot was received
+	 */
+	public int lastShotY() {
+		return lastShot < 0 ? -1 : lastShot / size;
+	}
+
+	/**
+	 * Outcome of the last shot received
+	 * @return Ship.MISS, Ship.HIT, Ship.SUNK or Ship.ALREADY_HIT
+	 */
+	public byte lastShotResult() {
+		return lastResult;
 	}
-	
-	
+
+
 	/**
 	 * Indicates whether a ship is destroyed at a given position
 	 * @param x absissa
 	 * @param y ordinate
 	 * @return true if a ship is destroyed at the given position
-	 * @throws NotInFieldException 
+	 * @throws NotInFieldException
 	 */
 	public boolean destroyed(int x, int y) throws NotInFieldException {
 		if(invalidPos(x, y)) throw new NotInFieldException();
-		
-		for(Ship s : ships) {
-			if(s.isDestructible(x, y) && s.isDestroyed()) {
-				return true;
-			}
-		}
-		return false;
+
+		final int i = shipIndex[cell(x, y)];
+		return i != NO_SHIP && shipLeft[i] == 0;
 	}
 
-	
+
 	/**
 	 * Get the ship at a given position
 	 * @param x absissa
 	 * @param y ordinate
 	 * @return the ship at the given position, or null
-	 * @throws NotInFieldException 
+	 * @throws NotInFieldException
 	 */
 	public Ship getShip(int x, int y) throws NotInFieldException {
 		if(invalidPos(x, y)) throw new NotInFieldException();
-		
-		for(Ship s : ships) {
-			if(s.isDestructible(x, y)) {
-				return s;
-			}
-		}
-		return null;
+
+		final int i = shipIndex[cell(x, y)];
+		return i == NO_SHIP ? null : ships.get(i);
 	}
-	
-	
+
+
 	/**
 	 * Indicates whether a position has already been shot
 	 * @param x absissa
 	 * @param y ordinate
 	 * @return true if the position has already been shot
-	 * @throws NotInFieldException 
+	 * @throws NotInFieldException
 	 */
 	public boolean touched(int x, int y) throws NotInFieldException {
 		if(invalidPos(x, y)) throw new NotInFieldException();
-		
-		return touched[x][y];
+
+		return get(shots, cell(x, y));
+	}
+
+
+	/**
+	 * Ships placed on the field, in the order they were placed
+	 * @return the ships of the field
+	 */
+	List<Ship> getShips() {
+		return ships;
+	}
+
+	/**
+	 * Shots received, one bit per case (see cell)
+	 * @return the shot bitboard, not to be modified
+	 */
+	long[] shotBoard() {
+		return shots;
 	}
-	
-	
+
+
 	/**
 	 * Indicates if all ships are destroyed
 	 * @return true if all ships are destroyed
 	 */
 	public boolean won() {
-		for(Ship s : ships) {
-			if(!s.isDestroyed()) {
-				return false;
-			}
-		}
-		return true;
+		return remainingShips == 0;
+	}
+
+	/**
+	 * Number of ships not destroyed yet
+	 * @return number of ships still afloat
+	 */
+	public int remainingShips() {
+		return remainingShips;
 	}
-	
-	
+
+	/**
+	 * Number of cases of the ships not shot yet
+	 * @return number of cases left to hit
+	 */
+	public int remainingCells() {
+		return remainingCells;
+	}
+
+
 	/**
 	 * Place a ship at the given position
 	 * @param s ship to be placed
 	 * @return true if the ship was correctly placed
-	 * @throws NotInFieldException 
+	 * @throws NotInFieldException
 	 */
 	public boolean placeShip(Ship s) throws NotInFieldException {
 		final int x = s.getX(), y = s.getY();
 		final int w = s.getWidth(), h = s.getHeight();
 		final int xe = x+w-1, ye = y+h-1;
-		
+
 		//can't place because a part is out of field
 		if(invalidPos(x, y) || invalidPos(xe, ye)) {
 			throw new NotInFieldException();
 		}
-		
+
 		//check if a case is already occupied
-		for(int xi=x; xi <= xe; xi++) {
-			for(int yi=x; yi <= ye; yi++) {
-				if(getShip(xi, yi) != null){
-					return false;
-				}
+		for(int yi=y; yi <= ye; yi++) {
+			if(occupiedRow(cell(x, yi), w)) {
+				return false;
 			}
 		}
-		
+
 		//everything is right, can be placed
+		if(shared) {
+			ships = new ArrayList<Ship>(ships);
+			occupied = occupied.clone();
+			shipIndex = shipIndex.clone();
+			shared = false;
+		}
+		final int index = ships.size();
 		ships.add(s);
+		if(index == shipLeft.length) {
+			shipLeft = Arrays.copyOf(shipLeft, 2 * index);
+		}
+		shipLeft[index] = 0;
+		for(int yi=y; yi <= ye; yi++) {
+			for(int c=cell(x, yi), end=c+w; c < end; c++) {
+				set(occupied, c);
+				shipIndex[c] = index;
+				if(!get(shots, c)) {
+					shipLeft[index]++;
+				} else if(!fork) {
+					s.receiveShot(c % size, yi);
+				}
+			}
+		}
+		remainingCells += shipLeft[index];
+		if(shipLeft[index] > 0) {
+			remainingShips++;
+		}
 		return true;
 	}
+
+	/**
+	 * Check a run of consecutive cases of a row against the occupancy
+	 * bitboard, a whole word at a time
+	 * @param from index of the first case
+	 * @param length number of cases
+	 * @return true if at least one of the cases is occupied
+	 */
+	private boolean occupiedRow(int from, int length) {
+		final int to = from + length;
+		for(int c = from; c < to; c = (c | 63) + 1) {
+			final int bits = Math.min(to - c, 64 - (c & 63));
+			final long mask = (bits == 64 ? -1L : (1L << bits) - 1) << c;
+			if((occupied[c >>> 6] & mask) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Serialize the former form, the shots being unpacked in a separate
+	 * battlefield : the battlefield is not changed by its serialization
+	 */
+	private Object writeReplace() {
+		boolean[][] t = new boolean[size][size];
+		for(int x=0; x < size; x++) {
+			for(int y=0; y < size; y++) {
+				t[x][y] = get(shots, cell(x, y));
+			}
+		}
+		return new BattleField(ships, t);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+
+		init(touched.length);
+		lastShot = -1;
+		lastResult = Ship.MISS;
+		List<Ship> saved = ships;
+		ships = new ArrayList<Ship>(saved.size());
+		shipLeft = new int[Math.max(4, saved.size())];
+		for(Ship s : saved) {
+			for(int yi=s.getY(); yi < s.getY()+s.getHeight(); yi++) {
+				for(int c=cell(s.getX(), yi), end=c+s.getWidth(); c < end; c++) {
+					set(occupied, c);
+					shipIndex[c] = ships.size();
+					shipLeft[ships.size()]++;
+				}
+			}
+			ships.add(s);
+		}
+		// the ships are read undamaged, the shots damage them again
+		remainingShips = ships.size();
+		for(int x=0; x < size; x++) {
+			for(int y=0; y < size; y++) {
+				if(shipIndex[cell(x, y)] != NO_SHIP) {
+					remainingCells++;
+				}
+			}
+		}
+		for(int x=0; x < size; x++) {
+			for(int y=0; y < size; y++) {
+				if(touched[x][y]) {
+					hit(x, y);
+				}
+			}
+		}
+		lastShot = -1;
+		lastResult = Ship.MISS;
+		touched = null;
+	}
 }
@@ -0,0 +1,175 @@
+package model;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Random generator of a game (SplitMix64, the algorithm of
+ * java.util.SplittableRandom, but serializable).
+ *
+ * A game built from a seed gives the same draws each time, and split() gives
+ * an independent generator to each strategy or thread, so that they never
+ * share a generator, unlike Math.random().
+ *
+ */
+public class GameRandom implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/** Seeds of the generators built without seed */
+	private static final AtomicLong seeder = new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+	private long seed;
+	private final long gamma;
+	/** built from a seed, or split from such a generator */
+	private final boolean seeded;
+
+	/**
+	 * A generator with a seed of its own, for the games which don't have to
+	 * be replayed
+	 */
+	public GameRandom() {
+		final long s = seeder.getAndAdd(2 * GOLDEN_GAMMA);
+		seed = mix64(s);
+		gamma = mixGamma(s + GOLDEN_GAMMA);
+		seeded = false;
+	}
+
+	/**
+	 *
+	 * @param seed seed of the generator : the same seed gives the same draws
+	 */
+	public GameRandom(long seed) {
+		this(seed, GOLDEN_GAMMA, true);
+	}
+
+	/**
+	 * Restore a generator (see ModelCodec)
+	 */
+	GameRandom(long seed, long gamma, boolean seeded) {
+		this.seed = seed;
+		this.gamma = gamma;
+		this.seeded = seeded;
+	}
+
+	/**
+	 * @return a new generator, independent of this one, whose draws only
+	 * depend on the draws done by this one until now
+	 */
+	public GameRandom split() {
+		return new GameRandom(nextLong(), mixGamma(nextSeed()), seeded);
+	}
+
+	/**
+	 * @return true if the generator was built from a seed, or split from
+	 * such a generator : its users must then only depend on its draws, not on
+	 * the time or the machine
+	 */
+	public boolean isSeeded() {
+		return seeded;
+	}
+
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+
+	public int nextInt() {
+		return mix32(nextSeed());
+	}
+
+	/**
+	 * @param bound upper bound (exclusive), positive
+	 * @return an integer drawn uniformly in [0, bound)
+	 */
+	public int nextInt(int bound) {
+		if(bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		int r = nextInt();
+		final int m = bound - 1;
+		if((bound & m) == 0) {
+			r &= m;
+		} else {
+			// rejection of the last incomplete interval
+			for(int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextInt() >>> 1) {
+			}
+		}
+		return r;
+	}
+
+	public boolean nextBoolean() {
+		return nextInt() < 0;
+	}
+
+	/**
+	 * @return a double drawn uniformly in [0, 1)
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * @return state of the generator, to save it
+	 */
+	long state() {
+		return seed;
+	}
+
+	/**
+	 * @return increment of the state, to save it
+	 */
+	long gamma() {
+		return gamma;
+	}
+
+	/**
+	 * @param from a former state of the generator
+	 * @return number of steps of the state since it was from (each draw does
+	 * one step or more), to replay the draws (see MoveJournal)
+	 */
+	long stepsSince(long from) {
+		// gamma is odd, so invertible modulo 2^64 (Newton's iteration)
+		long inverse = gamma;
+		for(int i = 0; i < 5; i++) {
+			inverse *= 2 - gamma * inverse;
+		}
+		return (seed - from) * inverse;
+	}
+
+	/**
+	 * Restore the state of the generator a number of steps after a former state
+	 * @param from a former state of the generator
+	 * @param steps number of steps done since then (see stepsSince)
+	 */
+	void restore(long from, long steps) {
+		seed = from + steps * gamma;
+	}
+
+	private long nextSeed() {
+		return seed += gamma;
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static int mix32(long z) {
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+
+	/**
+	 * @return an odd gamma with enough bit changes
+	 */
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		return Long.bitCount(z ^ (z >>> 1)) < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+
+}
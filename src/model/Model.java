@@ -2,9 +2,17 @@ package model;
 
 import java.awt.event.ActionEvent;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Observable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import exception.NotInFieldException;
 import exception.NotPlaceableException;
@@ -13,10 +21,9 @@ import model.ship.Ship;
 import model.ship.factory.ModernShipFactory;
 import model.ship.factory.ShipFactory;
 import model.strategy.ComputerStrategy;
-import model.strategy.CrossComputerStrategy;
+import model.strategy.ComputerStrategyFactory;
 import model.strategy.PlacementRandomStrategy;
 import model.strategy.PlacementStrategy;
-import model.strategy.RandomComputerStrategy;
 
 /**
  * Base class, interface to wich communicate to play battleship
@@ -27,15 +34,30 @@ import model.strategy.RandomComputerStrategy;
 
 public class Model extends Observable implements Serializable {
 	
+	private static final long serialVersionUID = -4221645691527240744L;
+	
 	public enum GameState{PLACEMENT, IN_GAME};
 	
 	public final transient static int PLAYER = 0, PC = 1;
 	
+	public final transient static int DEFAULT_SIZE = 10;
+	
 	private int currentPlayer;
+	/** Number of shots of each turn, not serialized : the saves of the java
+	 * serialization (the former format) are classic games */
+	transient private int salvo = 1;
 	private GameState gameState = GameState.PLACEMENT;
 	
 	transient private ModelDAO dao;
 	transient private ShipFactory shipFactory;
+	transient private MoveJournal journal;
+	transient private boolean journalFull;
+	transient private ExecutorService worker;
+	transient private Executor applier;
+	transient private int turn;
+	transient private int salvoLeft;
+	transient private Future<?> pendingTurn;
+	transient private GameRandom random;
 	
 	private int sizeBattleField;
 	private ComputerStrategy strat;
@@ -50,14 +72,15 @@ public class Model extends Observable implements Serializable {
 
 	public Model() {
 		// defaultvalues
-		sizeBattleField = 10;
+		sizeBattleField = DEFAULT_SIZE;
 
 		ally = new BattleField(sizeBattleField);
 		opponent = new BattleField(sizeBattleField);
 
 		shipFactory = ModernShipFactory.getInstance();
-		strat = RandomComputerStrategy.getInstance();
+		strat = ComputerStrategyFactory.getInstance().newStrategy(ComputerStrategyFactory.RANDOM);
 		placement = PlacementRandomStrategy.getInstance();
+		random = new GameRandom();
 		
 		dao = ModelDAO.getInstance();
 
@@ -67,18 +90,74 @@ public class Model extends Observable implements Serializable {
 	}
 
 	public Model(ShipFactory age, ComputerStrategy strategy, PlacementStrategy placementStrat) {
+		dao = ModelDAO.getInstance();
 		newGame(age, strategy, placementStrat);
 	}
 	
 	/**
-	 * to begin a new game
+	 * Restore a saved game (see ModelCodec)
+	 */
+	Model(int size, GameState state, int player, BattleField allyField, BattleField opponentField,
+			ComputerStrategy strategy, PlacementStrategy placementStrat, List<Ship> noPlaced, boolean placedComputer) {
+		sizeBattleField = size;
+		gameState = state;
+		currentPlayer = player;
+		ally = allyField;
+		opponent = opponentField;
+		strat = strategy;
+		placement = placementStrat;
+		shipsNoPlaced = noPlaced;
+		shipsPlacedComputer = placedComputer;
+		shipFactory = ModernShipFactory.getInstance();
+		random = new GameRandom();
+		dao = ModelDAO.getInstance();
+	}
+	
+	/**
+	 * to begin a new game on a battlefield of the default size
 	 * @param age age of the Ships
 	 * @param strategy attack strategy of the computer
 	 * @param placementStrat placement strategy of the computer
 	 */
 	public void newGame(ShipFactory age, ComputerStrategy strategy, PlacementStrategy placementStrat) {
-		sizeBattleField = 10;
+		newGame(DEFAULT_SIZE, age, strategy, placementStrat);
+	}
+	
+	/**
+	 * to begin a new game
+	 * @param size size of the battlefields
+	 * @param age age of the Ships, giving the fleet of each player
+	 * @param strategy attack strategy of the computer
+	 * @param placementStrat placement strategy of the computer
+	 */
+	public void newGame(int size, ShipFactory age, ComputerStrategy strategy, PlacementStrategy placementStrat) {
+		newGame(size, age, strategy, placementStrat, new GameRandom());
+	}
+	
+	/**
+	 * to begin a game which can be replayed : the same seed and the same
+	 * moves of the player give the same game
+	 * @param size size of the battlefields
+	 * @param age age of the Ships, giving the fleet of each player
+	 * @param strategy attack strategy of the computer
+	 * @param placementStrat placement strategy of the computer
+	 * @param seed seed of the draws of the computer
+	 */
+	public void newGame(int size, ShipFactory age, ComputerStrategy strategy, PlacementStrategy placementStrat, long seed) {
+		newGame(size, age, strategy, placementStrat, new GameRandom(seed));
+	}
+	
+	private void newGame(int size, ShipFactory age, ComputerStrategy strategy, PlacementStrategy placementStrat, GameRandom rand) {
+		cancelComputerTurn();
+		random = rand;
+		if(strategy != null) {
+			strategy.setRandom(rand.split());
+		}
+		setJournal(null);
+		sizeBattleField = size;
 		gameState = GameState.PLACEMENT;
+		// the player begins, even if the computer won the last game
+		currentPlayer = PLAYER;
 		ally = new BattleField(sizeBattleField);
 		opponent = new BattleField(sizeBattleField);
 
@@ -87,7 +166,7 @@ public class Model extends Observable implements Serializable {
 		placement = placementStrat;
 		shipsNoPlaced = getShipFactory().getShips();
 		shipsPlacedComputer = false;
-		update();
+		update(ModelEvent.newGame());
 	}
 	
 
@@ -118,55 +197,82 @@ public class Model extends Observable implements Serializable {
 
 	/**
 	 * set the strategy chosen by the player
-	 * @param e
+	 * @param s name of the strategy in ComputerStrategyFactory
 	 */
 	public void setStrategy(String s) {
-		switch(s) {
-		case "Cross" : 
-			strat = CrossComputerStrategy.getInstance();
-			break;
-		case "Random":
-			strat = RandomComputerStrategy.getInstance();
+		ComputerStrategy newStrat = ComputerStrategyFactory.getInstance().newStrategy(s, shipFactory);
+		if(newStrat != null) {
+			// a seeded game stays seeded with the new strategy
+			newStrat.setRandom(random.split());
+			strat = newStrat;
 		}
 	}
 
 	/**
-	 * Notify Observers
+	 * Notify Observers, which receive the event as argument
+	 * @param event what changed
 	 */
-	private void update() {
+	private void update(ModelEvent event) {
+		if(journalFull) {
+			journalFull = false;
+			try {
+				journal.compact(this);
+			} catch (IOException e) {
+				System.err.println("Impossible to compact the journal");
+			}
+		}
 		setChanged();
-		notifyObservers();
+		notifyObservers(event);
 	}
 
 	/**
 	 * attack the opponent battlefield at the position (x,y)
 	 * @param x abscissa of the shot
 	 * @param y ordinate of the shot
-	 * @return
+	 * @return true if a ship was touched
 	 */
 	public boolean shot(int x, int y) {
-		boolean success = false;
+		return shots(new int[] {x}, new int[] {y}) > 0;
+	}
+
+	/**
+	 * attack the opponent battlefield with a salvo, the computer answering
+	 * with a salvo of getSalvo() shots
+	 * @param xs abscissas of the shots
+	 * @param ys ordinates of the shots
+	 * @return number of shots which touched a ship
+	 */
+	public int shots(int[] xs, int[] ys) {
+		int touched = 0;
 		try {
 			// Shot on the current battlefield
-			switch (currentPlayer) {
-			case PLAYER:
-				success = opponent.receiveShot(x, y);
-				break;
-			case PC:
-				success = ally.receiveShot(x, y);
-				break;
+			final int shooter = currentPlayer;
+			final byte[] results = new byte[xs.length];
+			touched = (shooter == PLAYER ? opponent : ally).receiveShots(xs, ys, results);
+			for(int i = 0; i < xs.length; i++) {
+				record(MoveJournal.SHOT, shooter, null, xs[i], ys[i]);
 			}
+			List<ModelEvent> reply = null;
 			if(!won()) {
-				endTurn();
+				reply = endTurn();
+			}
+			for(int i = 0; i < xs.length; i++) {
+				update(ModelEvent.cellShot(shooter == PLAYER ? PC : PLAYER, xs[i], ys[i], results[i]));
+			}
+			if(reply != null) {
+				for(ModelEvent e : reply) {
+					update(e);
+				}
+			}
+			if(worker != null && currentPlayer == PC && !won()) {
+				salvoLeft = salvo;
+				startComputerTurn();
 			}
-			update();
-
-			return success;
 		} catch (NotInFieldException e) {
 			System.err.println("Shooting out of battlefield");
 		}
 
-		return success;
+		return touched;
 	}
 	
 	
@@ -187,7 +293,7 @@ public class Model extends Observable implements Serializable {
 	
 	public void changeShipOrientation(Ship s) {
 		s.changeOrientation();
-		update();
+		update(ModelEvent.stateChanged());
 	}
 	
 	/**
@@ -243,8 +349,12 @@ public class Model extends Observable implements Serializable {
 		try {
 			if (shipsPlacedComputer == false) {
 				List<Ship> listShips = shipFactory.getShips();
-				placement.placeShips(opponent, listShips);
+				placement.placeShips(opponent, listShips, random);
 				shipsPlacedComputer = true;
+				for(Ship s : listShips) {
+					record(MoveJournal.PLACE, PC, s, s.getX(), s.getY());
+					update(ModelEvent.shipPlaced(PC, s));
+				}
 			} 
 
 		} catch (NotPlaceableException e) {
@@ -255,6 +365,29 @@ public class Model extends Observable implements Serializable {
 
 	}
 
+	/**
+	 * Place the ships of the player not placed yet at random, with the
+	 * placement strategy of the computer
+	 */
+	public void placeShipsPlayer() {
+		List<Ship> listShips = new ArrayList<>(shipsNoPlaced);
+		try {
+			placement.placeShips(ally, listShips, random);
+		} catch (NotPlaceableException e) {
+			System.err.println("The ships of the player can no longer be placed");
+		} catch (ShipException e) {
+			System.err.println("Error while trying to place the ships of the player");
+		}
+		// a strategy may have placed some of the ships before failing
+		for(Ship s : listShips) {
+			if(ally.getShips().contains(s)) {
+				shipsNoPlaced.remove(s);
+				record(MoveJournal.PLACE, PLAYER, s, s.getX(), s.getY());
+				update(ModelEvent.shipPlaced(PLAYER, s));
+			}
+		}
+	}
+
 	/**
 	 * 
 	 * @param ship
@@ -267,7 +400,8 @@ public class Model extends Observable implements Serializable {
 			boolean everythingIsOk = ally.placeShip(ship);
 			if (everythingIsOk) {
 				shipsNoPlaced.remove(ship);
-				update();
+				record(MoveJournal.PLACE, PLAYER, ship, x, y);
+				update(ModelEvent.shipPlaced(PLAYER, ship));
 				return true;
 			} else {
 				return false;
@@ -280,34 +414,278 @@ public class Model extends Observable implements Serializable {
 
 	/**
 	 * change the current player
+	 * @return the shots of the computer, or null
 	 */
-	private void endTurn() {
+	private List<ModelEvent> endTurn() {
+		List<ModelEvent> reply = null;
 		if (currentPlayer == PC) {
-			currentPlayer = PLAYER;
+			changeTurn(PLAYER);
 		} else {
-			currentPlayer = PC;
+			changeTurn(PC);
+			// with a worker, the computer plays once the shot of the player is shown
+			if(!won() && worker == null) {
+				reply = computerSalvo(salvo);
+			}
+		}
+		return reply;
+	}
+
+	/**
+	 * give the turn to a player, the end of the turn being recorded in the
+	 * journal with the state of the generator of the strategy
+	 * @param player player whose turn begins
+	 */
+	private void changeTurn(int player) {
+		currentPlayer = player;
+		if(journal != null) {
 			try {
-				if(!won()) {
-					strat.shot(ally);
-					if(!won()) {
-						currentPlayer = PLAYER;
-					}
-				}
+				journalFull |= journal.turn(player, strat == null ? null : strat.getRandom());
+			} catch (IOException e) {
+				System.err.println("Impossible to write the journal");
+			}
+		}
+	}
+
+	/**
+	 * the computer shoots a salvo on the ally battlefield
+	 * @param shots number of shots of the salvo
+	 * @return the shots of the computer
+	 */
+	private List<ModelEvent> computerSalvo(int shots) {
+		List<ModelEvent> reply = new ArrayList<>(shots);
+		try {
+			int[] xs = new int[shots], ys = new int[shots];
+			byte[] results = new byte[shots];
+			final int n = strat.salvo(ally, xs, ys, results);
+			for(int i = 0; i < n; i++) {
+				record(MoveJournal.SHOT, PC, null, xs[i], ys[i]);
+				reply.add(ModelEvent.cellShot(PLAYER, xs[i], ys[i], results[i]));
+			}
+			if(!won()) {
+				changeTurn(PLAYER);
+			}
+		} catch (NotInFieldException e) {
+			System.err.println("Computer error when he wants to shot us");
+		}
+		return reply;
+	}
+
+	/**
+	 * the computer does one shot of its salvo on the ally battlefield
+	 * @param c case chosen by the strategy, or -1 to let the strategy choose now
+	 * @return the shot of the computer, or null
+	 */
+	private ModelEvent computerShot(int c) {
+		try {
+			if(c < 0) {
+				strat.shot(ally);
+			} else {
+				strat.shot(ally, c);
+			}
+			record(MoveJournal.SHOT, PC, null, ally.lastShotX(), ally.lastShotY());
+			return ModelEvent.cellShot(PLAYER, ally.lastShotX(), ally.lastShotY(), ally.lastShotResult());
+		} catch (NotInFieldException e) {
+			System.err.println("Computer error when he wants to shot us");
+		}
+		return null;
+	}
+
+	/**
+	 * Let the computer choose its shot on another thread than the one using
+	 * the model, so that a slow strategy does not freeze the display. The
+	 * shot is then done by the applier, on the thread using the model.
+	 * Without worker, the computer plays at once in shot(x, y).
+	 * @param worker executor choosing the shots, or null to play at once. The
+	 * model gives it a task once the previous one was applied, so it may be a
+	 * pool shared by several models (a strategy is not thread safe).
+	 * @param applier executor running the tasks on the thread using the model
+	 */
+	public void setComputerThreads(ExecutorService worker, Executor applier) {
+		cancelComputerTurn();
+		this.worker = worker;
+		this.applier = applier;
+	}
+
+	/**
+	 * choose the shot of the computer on the worker
+	 */
+	private void startComputerTurn() {
+		final int t = ++turn;
+		final ComputerStrategy s = strat;
+		final BattleField field = ally;
+		final Executor apply = applier;
+		s.setExecutor(worker);
+		pendingTurn = worker.submit(() -> {
+			try {
+				final int c = s.aim(field);
+				apply.execute(() -> applyComputerTurn(t, c));
 			} catch (NotInFieldException e) {
 				System.err.println("Computer error when he wants to shot us");
 			}
+		});
+	}
+
+	/**
+	 * do the shot chosen by the worker, unless the turn was cancelled
+	 * @param t turn of the shot
+	 * @param c case chosen by the strategy
+	 */
+	private void applyComputerTurn(int t, int c) {
+		if(t != turn || currentPlayer != PC || won()) {
+			return;
+		}
+		pendingTurn = null;
+		final ModelEvent reply = computerShot(c);
+		if(!won() && (--salvoLeft <= 0 || ally.untouchedCount() == 0)) {
+			changeTurn(PLAYER);
+		}
+		if(reply != null) {
+			update(reply);
+		}
+		// next shot of the salvo
+		if(currentPlayer == PC && !won()) {
+			startComputerTurn();
 		}
 	}
 
 	/**
-	 * save the game in the save file fn
+	 * forget the turn of the computer being chosen, if any
+	 */
+	private void cancelComputerTurn() {
+		turn++;
+		if(pendingTurn != null) {
+			pendingTurn.cancel(true);
+			pendingTurn = null;
+		}
+	}
+
+	/**
+	 * Record a move in the journal of the game, if the game was saved
+	 * @param kind kind of move (see MoveJournal)
+	 * @param player player doing the move
+	 * @param s ship placed, or null
+	 * @param x abscissa of the move
+	 * @param y ordinate of the move
+	 */
+	private void record(int kind, int player, Ship s, int x, int y) {
+		if(journal != null) {
+			try {
+				journalFull |= journal.append(kind, player, s, x, y);
+			} catch (IOException e) {
+				System.err.println("Impossible to write the journal");
+			}
+		}
+	}
+	
+	/**
+	 * Change the journal recording the moves of the game
+	 * @param j new journal, or null
+	 */
+	void setJournal(MoveJournal j) {
+		if(journal != null && journal != j) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				System.err.println("Impossible to close the journal");
+			}
+		}
+		journal = j;
+		journalFull = false;
+	}
+	
+	/**
+	 * Replay a shot of the journal. The shots of the computer are replayed
+	 * through its strategy, which follows the game as if it had shot them.
+	 * @param player player shooting
+	 * @param x abscissa of the shot
+	 * @param y ordinate of the shot
+	 * @throws NotInFieldException
+	 */
+	void replayShot(int player, int x, int y) throws NotInFieldException {
+		if(player == PLAYER) {
+			opponent.receiveShot(x, y);
+		} else if(strat != null) {
+			if(x < 0 || y < 0 || x >= ally.size() || y >= ally.size()) {
+				throw new NotInFieldException();
+			}
+			strat.shot(ally, y * ally.size() + x);
+			salvoLeft--;
+		} else {
+			ally.receiveShot(x, y);
+			salvoLeft--;
+		}
+	}
+
+	/**
+	 * Replay the end of a turn of the journal
+	 * @param player player whose turn begins
+	 */
+	void replayTurn(int player) {
+		currentPlayer = player;
+		salvoLeft = salvo;
+	}
+
+	/**
+	 * Finish the salvo of the computer cut by a crash, once the journal is
+	 * replayed : the computer shoots the shots left, or gives the turn to the
+	 * player if only the end of its turn was lost
+	 */
+	void finishSalvo() {
+		if(currentPlayer != PC || gameState != GameState.IN_GAME || won()) {
+			return;
+		}
+		if(salvoLeft > 0 && ally.untouchedCount() > 0) {
+			computerSalvo(salvoLeft);
+		} else {
+			changeTurn(PLAYER);
+		}
+	}
+	
+	/**
+	 * Replay a placement of the journal
+	 * @param player player placing the ship
+	 * @param s ship of the journal
+	 * @return true if the ship could be placed
+	 * @throws NotInFieldException
+	 */
+	boolean replayPlacement(int player, Ship s) throws NotInFieldException {
+		if(player == PC) {
+			shipsPlacedComputer = true;
+			return opponent.placeShip(s);
+		}
+		for(Ship n : shipsNoPlaced) {
+			if(n.letter().equals(s.letter())) {
+				if(n.getWidth() != s.getWidth()) {
+					n.changeOrientation();
+				}
+				n.setPosition(s.getX(), s.getY());
+				return ally.placeShip(n) && shipsNoPlaced.remove(n);
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Replay a change of state of the journal
+	 * @param gs new game state
+	 */
+	void replayState(GameState gs) {
+		gameState = gs;
+	}
+
+	/**
+	 * save the game in the save file fn, the next moves being recorded in its
+	 * journal
 	 * @param fn name of the save file
 	 * @throws IOException
 	 */
 	
 	public void save(String fn) throws IOException {	
-		dao.save(this, fn);
-		
+		ByteBuffer snapshot = ModelCodec.getInstance().encode(this);
+		MoveJournal next = new MoveJournal(fn, snapshot, strat == null ? null : strat.getRandom());
+		dao.write(snapshot, fn);
+		setJournal(next);
+		next.open();
 	}
 	
 	/**
@@ -317,8 +695,49 @@ public class Model extends Observable implements Serializable {
 	 */
 	
 	public void load(String fn) throws IOException{
-		Model info = dao.load(fn);
-		
+		load(dao.load(fn));
+	}
+	
+	/**
+	 * save the game in the background
+	 * @param fn name of the save file
+	 * @return completed once the game is saved
+	 */
+	public CompletableFuture<Void> saveAsync(String fn) {
+		ByteBuffer snapshot = ModelCodec.getInstance().encode(this);
+		MoveJournal next = new MoveJournal(fn, snapshot, strat == null ? null : strat.getRandom());
+		setJournal(next);// the moves are kept until the snapshot is written
+		return dao.saveAsync(snapshot, fn).thenRun(() -> {
+			try {
+				next.open();
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+	
+	/**
+	 * read a saved game in the background ; the game is not changed until the
+	 * result is given to load(Model)
+	 * @param fn name of the save file
+	 * @return completed with the saved game
+	 */
+	public CompletableFuture<Model> loadAsync(String fn) {
+		return dao.loadAsync(fn);
+	}
+	
+	/**
+	 * continue a saved game
+	 * @param info the saved game
+	 */
+	public void load(Model info) {
+		cancelComputerTurn();
+		setJournal(info.journal);
+		random = info.random != null ? info.random : new GameRandom();
+		shipFactory = info.shipFactory != null ? info.shipFactory : ModernShipFactory.getInstance();
+		// the saves of former versions have no salvo
+		salvo = Math.max(1, info.salvo);
+		info.journal = null;
 		gameState = info.getGameState();
 		currentPlayer = info.currentPlayer();
 		ally = info.getAlly();
@@ -329,8 +748,48 @@ public class Model extends Observable implements Serializable {
 		shipsPlacedComputer = info.getShipsPlacedComputer();
 		shipsNoPlaced = info.getShipsNoPlaced();
 		
-		update();
-		
+		update(ModelEvent.newGame());
+		// the game was saved while the computer was choosing its shot
+		if(worker != null && currentPlayer == PC && !won()) {
+			salvoLeft = salvo;
+			startComputerTurn();
+		}
+	}
+	
+	/**
+	 * Copy the game, to play moves on it without changing this one. Only the
+	 * shots are copied : the copy shares the ships of this game, so ships must
+	 * not be placed or turned on it. The copy has no observer and no journal,
+	 * and the computer plays at once.
+	 * @param strategy attack strategy of the computer in the copy (a strategy
+	 * keeps the state of a single game)
+	 * @return the copy
+	 */
+	public Model fork(ComputerStrategy strategy) {
+		Model m = new Model(sizeBattleField, gameState, currentPlayer, ally.copy(), opponent.copy(),
+				strategy, placement, new ArrayList<>(shipsNoPlaced), shipsPlacedComputer);
+		m.shipFactory = shipFactory;
+		m.random = random.split();
+		m.salvo = salvo;
+		return m;
+	}
+	
+	/**
+	 * Salvo mode : each player shoots several cases at each turn
+	 * @param shots number of shots of each turn, 1 for the classic game
+	 */
+	public void setSalvo(int shots) {
+		if(shots < 1) {
+			throw new IllegalArgumentException("A turn has at least one shot");
+		}
+		salvo = shots;
+	}
+	
+	/**
+	 * @return number of shots of each turn
+	 */
+	public int getSalvo() {
+		return salvo;
 	}
 	
 	/**
@@ -381,7 +840,8 @@ public class Model extends Observable implements Serializable {
 	 */
 	public void setGameState(GameState gs) {
 		gameState = gs;
-		update();
+		record(MoveJournal.STATE, currentPlayer, null, gs.ordinal(), 0);
+		update(ModelEvent.stateChanged());
 	}
 	
 	
@@ -393,5 +853,29 @@ public class Model extends Observable implements Serializable {
 		return shipFactory;
 	}
 
+	/**
+	 * @return generator of the draws of the computer, to save it (see ModelCodec)
+	 */
+	GameRandom getRandom() {
+		return random;
+	}
+
+	/**
+	 * Restore the generator of a saved game (see ModelCodec)
+	 * @param r generator of the draws of the computer
+	 */
+	void setRandom(GameRandom r) {
+		random = r;
+	}
+
+	/**
+	 * Read a save of the java serialization, the former format
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		salvo = 1;
+		random = new GameRandom();
+	}
+
 
 }
@@ -0,0 +1,397 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Many saved games in a single memory mapped file, found by their id.
+ *
+ * The file starts with the magic number "SOUA", a version and the end of the
+ * records (8 bytes at offset 8). The records are only appended : each one is
+ * its length (4 bytes, -1 for a deleted game), the id of the game (8 bytes)
+ * and the game (see ModelCodec). A game saved again or deleted leaves its
+ * former record as garbage, which a compaction removes in the background
+ * by copying the games left to a new file.
+ *
+ * The index from the ids to the records is in memory, rebuilt from the
+ * records when the archive is opened. The file is mapped in one piece, so it
+ * is limited to 2 GB.
+ *
+ */
+public class ModelArchive implements Closeable {
+
+	/** "SOUA" */
+	public static final int MAGIC = 0x534F5541;
+	public static final byte VERSION = 1;
+
+	private static final int HEADER = 16;
+	private static final int END = 8;
+	private static final int RECORD_HEADER = 12;
+	private static final int DELETED = -1;
+	private static final int INITIAL_CAPACITY = 1 << 20;
+
+	/** Garbage beyond which a compaction starts, if it is half the file */
+	private static final long MIN_GARBAGE = 1 << 20;
+
+	// background thread compacting the archives
+	private static final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "ModelArchive compaction");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final Path path;
+	private Data data;
+	/** offset of the record of each game */
+	private final Map<Long, Integer> index = new HashMap<>();
+	/** bytes of the records replaced or deleted */
+	private long garbage;
+	private CompletableFuture<Void> compaction;
+	private boolean closed;
+
+	/**
+	 * Open an archive, created if the file does not exist
+	 * @param path file of the archive
+	 * @throws IOException if the file can't be mapped or is not an archive
+	 */
+	public ModelArchive(Path path) throws IOException {
+		this.path = path;
+		data = new Data(path);
+		int offset = HEADER;
+		while(offset < data.end) {
+			// a length below -1 would not move the scan, nor one past the end of the records
+			if(offset + RECORD_HEADER > data.end || data.length(offset) < DELETED
+					|| (long) offset + RECORD_HEADER + Math.max(0, data.length(offset)) > data.end) {
+				data.close();
+				throw new IOException("Corrupted archive");
+			}
+			final Integer former = data.length(offset) == DELETED
+					? index.remove(data.id(offset))
+					: index.put(data.id(offset), offset);
+			if(former != null) {
+				garbage += data.size(former);
+			}
+			if(data.length(offset) == DELETED) {
+				garbage += RECORD_HEADER;
+			}
+			offset += data.size(offset);
+		}
+	}
+
+	/**
+	 * Save a game, replacing the former save of the same id
+	 * @param id id of the game
+	 * @param m game to save
+	 * @return size of the record written
+	 * @throws IOException if the archive is full or closed
+	 */
+	public synchronized int save(long id, Model m) throws IOException {
+		ensureOpen();
+		final int offset = data.append(id, ModelCodec.getInstance().encode(m));
+		final Integer former = index.put(id, offset);
+		if(former != null) {
+			garbage += data.size(former);
+			compactIfNeeded();
+		}
+		return data.size(offset);
+	}
+
+	/**
+	 * Load a game
+	 * @param id id of the game
+	 * @return the game, null if there is no game of this id
+	 * @throws IOException if the game can't be decoded or the archive is closed
+	 */
+	public synchronized Model load(long id) throws IOException {
+		ensureOpen();
+		final Integer offset = index.get(id);
+		return offset == null ? null : ModelCodec.getInstance().decode(Data.payload(data.buf, offset));
+	}
+
+	/**
+	 * Delete a game
+	 * @param id id of the game
+	 * @return false if there was no game of this id
+	 * @throws IOException if the archive is full or closed
+	 */
+	public synchronized boolean delete(long id) throws IOException {
+		ensureOpen();
+		final Integer former = index.get(id);
+		if(former == null) {
+			return false;
+		}
+		data.append(id, null);
+		index.remove(id);
+		garbage += data.size(former) + RECORD_HEADER;
+		compactIfNeeded();
+		return true;
+	}
+
+	/**
+	 * @param id id of a game
+	 * @return true if the game is in the archive
+	 */
+	public synchronized boolean contains(long id) {
+		return index.containsKey(id);
+	}
+
+	/**
+	 * @return number of games in the archive
+	 */
+	public synchronized int count() {
+		return index.size();
+	}
+
+	/**
+	 * @return bytes used in the file, garbage included
+	 */
+	public synchronized long getSize() {
+		return data.end;
+	}
+
+	/**
+	 * @return bytes of the records replaced or deleted, until the next compaction
+	 */
+	public synchronized long getGarbage() {
+		return garbage;
+	}
+
+	private void ensureOpen() throws IOException {
+		if(closed) {
+			throw new IOException("The archive is closed");
+		}
+	}
+
+	private void compactIfNeeded() {
+		if(garbage >= MIN_GARBAGE && 2 * garbage >= data.end) {
+			compact();
+		}
+	}
+
+	/**
+	 * Remove the garbage in the background, the archive still being usable
+	 * @return completed once the archive is compacted
+	 */
+	public synchronized CompletableFuture<Void> compact() {
+		if(compaction == null) {
+			final CompletableFuture<Void> result = new CompletableFuture<>();
+			compaction = result;
+			compactor.execute(() -> {
+				Throwable err = null;
+				try {
+					compactNow();
+				} catch (IOException | RuntimeException e) {
+					System.err.println("Impossible to compact the archive");
+					err = e;
+				}
+				synchronized(this) {
+					compaction = null;
+				}
+				if(err == null) {
+					result.complete(null);
+				} else {
+					result.completeExceptionally(err);
+				}
+			});
+		}
+		return compaction;
+	}
+
+	/**
+	 * copy the games to a new file, then replace the file by the new one
+	 */
+	private void compactNow() throws IOException {
+		final Data old;
+		final ByteBuffer oldBuf;
+		final Map<Long, Integer> snapshot;
+		synchronized(this) {
+			if(closed) {
+				return;
+			}
+			old = data;
+			oldBuf = data.buf.duplicate();
+			snapshot = new HashMap<>(index);
+		}
+		final Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+		Files.deleteIfExists(tmp);
+		final Data copy = new Data(tmp);
+		try {
+			Map<Long, Integer> moved = new HashMap<>();
+			// the records are never modified, they are copied without lock
+			for(Map.Entry<Long, Integer> e : snapshot.entrySet()) {
+				moved.put(e.getKey(), copy.append(e.getKey(), Data.payload(oldBuf, e.getValue())));
+			}
+			synchronized(this) {
+				if(closed || data != old) {
+					copy.close();
+					Files.delete(tmp);
+					return;
+				}
+				// the games saved or deleted during the copy, their copies being garbage
+				long stale = 0;
+				for(Map.Entry<Long, Integer> e : index.entrySet()) {
+					final Integer copied = snapshot.get(e.getKey());
+					if(!e.getValue().equals(copied)) {
+						moved.put(e.getKey(), copy.append(e.getKey(), Data.payload(data.buf, e.getValue())));
+						if(copied != null) {
+							stale += RECORD_HEADER + oldBuf.getInt(copied);
+						}
+					}
+				}
+				for(Map.Entry<Long, Integer> e : snapshot.entrySet()) {
+					if(!index.containsKey(e.getKey())) {
+						copy.append(e.getKey(), null);
+						moved.remove(e.getKey());
+						stale += 2 * RECORD_HEADER + oldBuf.getInt(e.getValue());
+					}
+				}
+				copy.buf.force();
+				Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				data.close();
+				data = copy;
+				index.clear();
+				index.putAll(moved);
+				garbage = stale;
+			}
+		} catch (IOException e) {
+			copy.close();
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+	}
+
+	/**
+	 * Close the archive, once the compaction in progress is over
+	 */
+	@Override
+	public void close() throws IOException {
+		final CompletableFuture<Void> c;
+		synchronized(this) {
+			c = compaction;
+		}
+		if(c != null) {
+			try {
+				c.join();
+			} catch (RuntimeException e) {
+				// the archive is left as it was
+			}
+		}
+		synchronized(this) {
+			if(!closed) {
+				closed = true;
+				data.close();
+			}
+		}
+	}
+
+	/**
+	 * File of an archive, mapped in memory
+	 */
+	private static final class Data {
+
+		final FileChannel channel;
+		MappedByteBuffer buf;
+		int end;
+
+		Data(Path path) throws IOException {
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			try {
+				final long size = channel.size();
+				if(size > Integer.MAX_VALUE) {
+					throw new IOException("The archive is too large");
+				}
+				buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_CAPACITY));
+				if(size == 0) {
+					buf.putInt(0, MAGIC);
+					buf.put(4, VERSION);
+					end = HEADER;
+					buf.putLong(END, end);
+				} else {
+					final long e = buf.getLong(END);
+					if(size < HEADER || buf.getInt(0) != MAGIC || buf.get(4) != VERSION || e < HEADER || e > size) {
+						throw new IOException("Not an archive of games");
+					}
+					end = (int) e;
+				}
+			} catch (IOException e) {
+				channel.close();
+				throw e;
+			}
+		}
+
+		int length(int offset) {
+			return buf.getInt(offset);
+		}
+
+		long id(int offset) {
+			return buf.getLong(offset + 4);
+		}
+
+		/**
+		 * @return size of the record at offset, its header included
+		 */
+		int size(int offset) {
+			final int length = length(offset);
+			return RECORD_HEADER + (length == DELETED ? 0 : length);
+		}
+
+		/**
+		 * @return the game of the record at offset, in buf
+		 */
+		static ByteBuffer payload(ByteBuffer buf, int offset) {
+			ByteBuffer b = buf.duplicate();
+			b.position(offset + RECORD_HEADER);
+			b.limit(offset + RECORD_HEADER + buf.getInt(offset));
+			return b.slice();
+		}
+
+		/**
+		 * append a record
+		 * @param id id of the game
+		 * @param game encoded game, or null to delete the game
+		 * @return offset of the record
+		 * @throws IOException if the file is full
+		 */
+		int append(long id, ByteBuffer game) throws IOException {
+			final int length = game == null ? 0 : game.remaining();
+			final long needed = (long) end + RECORD_HEADER + length;
+			if(needed > buf.capacity()) {
+				if(needed > Integer.MAX_VALUE) {
+					throw new IOException("The archive is full");
+				}
+				buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(Integer.MAX_VALUE, Math.max(needed, 2L * buf.capacity())));
+			}
+			final int offset = end;
+			buf.putInt(offset, game == null ? DELETED : length);
+			buf.putLong(offset + 4, id);
+			if(game != null) {
+				ByteBuffer b = buf.duplicate();
+				b.position(offset + RECORD_HEADER);
+				b.put(game);
+			}
+			end = offset + RECORD_HEADER + length;
+			// the record is complete before it is counted
+			buf.putLong(END, end);
+			return offset;
+		}
+
+		void close() throws IOException {
+			buf.force();
+			channel.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,544 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import exception.NotInFieldException;
+import model.ship.Ship;
+import model.ship.factory.ModernShipFactory;
+import model.ship.modern.Cruiser;
+import model.ship.modern.Gondola;
+import model.strategy.ComputerStrategy;
+import model.strategy.ComputerStrategyFactory;
+import model.strategy.PlacementConstraintStrategy;
+import model.strategy.PlacementRandomStrategy;
+import model.strategy.PlacementStrategy;
+
+/**
+ * Binary format of a saved game.
+ *
+ * A save starts with the magic number "SOUS" and a version, followed by the
+ * state of the model (with, since version 2, the number of shots of each
+ * turn, and since version 3 the fleet and the state of the generators of the
+ * game and of the computer strategy), then each battlefield as its size, its
+ * ships and its shots packed one bit per case. Each ship is a fixed record of
+ * 8 bytes : type, flags, x, y (2 bytes each), width and height. The damages
+ * of the ships are not stored, they are replayed from the shots when
+ * decoding.
+ *
+ * The shots of the computer are replayed through its strategy, so that it
+ * goes on hunting where it was. In a seeded game (since version 3) the
+ * battlefield of the player is followed by the order of its shots, each case
+ * packed on as few bits as the battlefield needs : the strategies draw their
+ * shots from the untouched cases in an order depending on the former shots,
+ * so the game only goes on as it would have if they are replayed in order.
+ * Otherwise they are replayed in the order of the cases.
+ *
+ * Saves written with the java serialization (the former format) are still
+ * decoded.
+ *
+ */
+public class ModelCodec {
+
+	/** "SOUS" */
+	public static final int MAGIC = 0x534F5553;
+	public static final byte VERSION = 3;
+
+	/** First bytes of a java serialization stream */
+	private static final short SERIALIZATION_MAGIC = (short) 0xACED;
+
+	private static final int SHIP_RECORD = 8;
+	private static final byte PLACED = 1;
+	private static final byte HAS_RANDOM = 1;
+	private static final byte SEEDED = 2;
+	private static final int RANDOM_RECORD = 1 + 8 + 8;
+
+	private static final ModelCodec instance = new ModelCodec();
+
+	public static ModelCodec getInstance() {
+		return instance;
+	}
+
+	private ModelCodec() {
+	}
+
+
+	/**
+	 * Encode a model
+	 * @param m model to encode
+	 * @return buffer holding the encoded model, ready to be read
+	 * @throws IllegalArgumentException if the fleet has ships of another type
+	 * than the cruisers and the gondolas
+	 */
+	public ByteBuffer encode(Model m) {
+		final byte[] strat = name(m.getStrat() == null ? null : m.getStrat().parse());
+		final byte[] placement = name(m.getPlacement() == null ? null : m.getPlacement().parse());
+		final List<Ship> noPlaced = m.getShipsNoPlaced();
+		final int[] fleet = count(m.getShipFactory().getShips());
+		final boolean seeded = m.getRandom() != null && m.getRandom().isSeeded();
+
+		ByteBuffer buf = ByteBuffer.allocate(4 + 1 + 3 + 4 + 2 + 4 + 2 * RANDOM_RECORD
+				+ 2 + strat.length + 2 + placement.length
+				+ size(m.getAlly()) + (seeded ? 8 * orderWords(m.getAlly()) : 0) + size(m.getOpponent())
+				+ 4 + SHIP_RECORD * noPlaced.size());
+		buf.putInt(MAGIC);
+		buf.put(VERSION);
+		buf.put((byte) m.getGameState().ordinal());
+		buf.put((byte) m.currentPlayer());
+		buf.put(m.getShipsPlacedComputer() ? (byte) 1 : 0);
+		buf.putInt(m.getSizeBattleField());
+		buf.putShort((short) m.getSalvo());
+		buf.putShort((short) fleet[0]);
+		buf.putShort((short) fleet[1]);
+		encode(m.getRandom(), buf);
+		encode(m.getStrat() == null ? null : m.getStrat().getRandom(), buf);
+		buf.putShort((short) strat.length).put(strat);
+		buf.putShort((short) placement.length).put(placement);
+		encode(m.getAlly(), buf);
+		if(seeded) {
+			encodeOrder(m.getAlly(), buf);
+		}
+		encode(m.getOpponent(), buf);
+		buf.putInt(noPlaced.size());
+		for(Ship s : noPlaced) {
+			encode(s, buf);
+		}
+		buf.flip();
+		return buf;
+	}
+
+	/**
+	 * Decode a model, in this format or in the former java serialization
+	 * @param buf buffer holding the encoded model
+	 * @return the decoded model
+	 * @throws IOException if the buffer does not hold a valid save
+	 */
+	public Model decode(ByteBuffer buf) throws IOException {
+		if(buf.remaining() >= 2 && buf.getShort(buf.position()) == SERIALIZATION_MAGIC) {
+			return decodeLegacy(buf);
+		}
+		try {
+			if(buf.getInt() != MAGIC) {
+				throw new IOException("Not a save file");
+			}
+			final byte version = buf.get();
+			if(version < 1 || version > VERSION) {
+				throw new IOException("Unknown save version " + version);
+			}
+			final Model.GameState state = Model.GameState.values()[buf.get()];
+			final int currentPlayer = buf.get();
+			final boolean shipsPlacedComputer = buf.get() != 0;
+			final int size = buf.getInt();
+			final int salvo = version >= 2 ? buf.getShort() : 1;
+			if(salvo < 1) {
+				throw new IOException("Corrupted save file");
+			}
+			if(version < 3) {
+				return decodeFleetless(buf, size, state, currentPlayer, shipsPlacedComputer, salvo);
+			}
+			final ModernShipFactory fleet = fleet(buf.getShort(), buf.getShort());
+			final GameRandom random = decodeRandom(buf);
+			final GameRandom stratRandom = decodeRandom(buf);
+			final ComputerStrategy strat = strategy(readName(buf), fleet);
+			final String placementName = readName(buf);
+			final BattleField ally = decodeShips(buf);
+			final long[] shots = readShots(buf, ally);
+			if(random != null && random.isSeeded()) {
+				decodeOrder(buf, ally, shots, strat);
+			} else {
+				shoot(ally, shots, strat);
+			}
+			final BattleField opponent = decodeBattleField(buf);
+			final List<Ship> noPlaced = decodeShips(buf.getInt(), buf);
+			if(stratRandom != null) {
+				strat.setRandom(stratRandom);
+			}
+
+			Model m = new Model(size, state, currentPlayer, ally, opponent, strat,
+					placement(placementName), noPlaced, shipsPlacedComputer);
+			m.setSalvo(salvo);
+			m.setPeriod(fleet);
+			if(random != null) {
+				m.setRandom(random);
+			}
+			return m;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | NotInFieldException e) {
+			throw new IOException("Corrupted save file", e);
+		}
+	}
+
+
+	/**
+	 * Decode a save of the versions 1 and 2, which have no fleet nor
+	 * generators : the fleet is the ships of the player
+	 */
+	private Model decodeFleetless(ByteBuffer buf, int size, Model.GameState state, int currentPlayer,
+			boolean shipsPlacedComputer, int salvo) throws NotInFieldException, IOException {
+		final String stratName = readName(buf);
+		final String placementName = readName(buf);
+		final BattleField ally = decodeShips(buf);
+		final long[] shots = readShots(buf, ally);
+		final BattleField opponent = decodeBattleField(buf);
+		final List<Ship> noPlaced = decodeShips(buf.getInt(), buf);
+
+		// the computer strategy looks for the ships of the player
+		List<Ship> ships = new ArrayList<>(ally.getShips());
+		ships.addAll(noPlaced);
+		final int[] fleet = count(ships);
+		final ComputerStrategy strat = strategy(stratName, fleet(fleet[0], fleet[1]));
+		shoot(ally, shots, strat);
+		Model m = new Model(size, state, currentPlayer, ally, opponent, strat,
+				placement(placementName), noPlaced, shipsPlacedComputer);
+		m.setSalvo(salvo);
+		return m;
+	}
+
+	/**
+	 * Size of an encoded battlefield
+	 * @param b battlefield
+	 * @return number of bytes
+	 */
+	public int size(BattleField b) {
+		return 4 + 4 + SHIP_RECORD * b.getShips().size() + 8 * b.shotBoard().length;
+	}
+
+	/**
+	 * Encode a battlefield : size, ships, then shots
+	 * @param b battlefield to encode
+	 * @param buf buffer receiving the battlefield
+	 */
+	public void encode(BattleField b, ByteBuffer buf) {
+		buf.putInt(b.size());
+		buf.putInt(b.getShips().size());
+		for(Ship s : b.getShips()) {
+			encode(s, buf);
+		}
+		for(long word : b.shotBoard()) {
+			buf.putLong(word);
+		}
+	}
+
+	/**
+	 * Decode a battlefield, replaying its shots on its ships
+	 * @param buf buffer holding the battlefield
+	 * @return the decoded battlefield
+	 * @throws NotInFieldException if a ship is out of the battlefield
+	 * @throws IOException if two ships overlap
+	 */
+	public BattleField decodeBattleField(ByteBuffer buf) throws NotInFieldException, IOException {
+		BattleField b = decodeShips(buf);
+		shoot(b, readShots(buf, b), null);
+		return b;
+	}
+
+	/**
+	 * Decode the size and the ships of a battlefield
+	 */
+	private BattleField decodeShips(ByteBuffer buf) throws NotInFieldException, IOException {
+		BattleField b = new BattleField(buf.getInt());
+		final int nbShips = buf.getInt();
+		for(int i = 0; i < nbShips; i++) {
+			if(!b.placeShip(decodeShip(buf))) {
+				throw new IOException("Overlapping ships");
+			}
+		}
+		return b;
+	}
+
+	/**
+	 * @return the shots of a battlefield, one bit per case
+	 */
+	private static long[] readShots(ByteBuffer buf, BattleField b) {
+		long[] shots = new long[b.shotBoard().length];
+		for(int w = 0; w < shots.length; w++) {
+			shots[w] = buf.getLong();
+		}
+		return shots;
+	}
+
+	/**
+	 * shoot the cases of the shots in their order
+	 * @param strat strategy shooting the cases, to rebuild its state, or null
+	 */
+	private static void shoot(BattleField b, long[] shots, ComputerStrategy strat) throws NotInFieldException {
+		for(int w = 0; w < shots.length; w++) {
+			long word = shots[w];
+			while(word != 0) {
+				shoot(b, (w << 6) + Long.numberOfTrailingZeros(word), strat);
+				word &= word - 1;
+			}
+		}
+	}
+
+	private static void shoot(BattleField b, int c, ComputerStrategy strat) throws NotInFieldException {
+		if(strat == null) {
+			b.receiveShot(c % b.size(), c / b.size());
+		} else {
+			strat.shot(b, c);
+		}
+	}
+
+	/**
+	 * @return bits of a case of the battlefield
+	 */
+	private static int caseBits(BattleField b) {
+		return Math.max(1, 64 - Long.numberOfLeadingZeros((long) b.size() * b.size() - 1));
+	}
+
+	/**
+	 * @return number of longs holding the order of the shots of the battlefield
+	 */
+	private static int orderWords(BattleField b) {
+		return (int) (((long) b.shotCount() * caseBits(b) + 63) >>> 6);
+	}
+
+	/**
+	 * Encode the cases shot in the order of the shots, caseBits() bits each
+	 * @param b battlefield whose shots are encoded
+	 * @param buf buffer receiving the order
+	 */
+	private static void encodeOrder(BattleField b, ByteBuffer buf) {
+		final int bits = caseBits(b);
+		long[] words = new long[orderWords(b)];
+		for(int i = 0, n = b.shotCount(); i < n; i++) {
+			final long p = (long) i * bits;
+			final int w = (int) (p >>> 6), offset = (int) (p & 63);
+			words[w] |= (long) b.shotCase(i) << offset;
+			if(offset + bits > 64) {
+				words[w + 1] |= (long) b.shotCase(i) >>> (64 - offset);
+			}
+		}
+		for(long word : words) {
+			buf.putLong(word);
+		}
+	}
+
+	/**
+	 * Decode the order of the shots and shoot them in this order
+	 * @param shots the cases shot, one bit per case
+	 * @param strat strategy shooting the cases, to rebuild its state
+	 * @throws IOException if the order does not hold the cases shot
+	 */
+	private static void decodeOrder(ByteBuffer buf, BattleField b, long[] shots, ComputerStrategy strat)
+			throws NotInFieldException, IOException {
+		int n = 0;
+		for(long word : shots) {
+			n += Long.bitCount(word);
+		}
+		final int bits = caseBits(b);
+		final long mask = (1L << bits) - 1;
+		long[] words = new long[(int) (((long) n * bits + 63) >>> 6)];
+		for(int w = 0; w < words.length; w++) {
+			words[w] = buf.getLong();
+		}
+		for(int i = 0; i < n; i++) {
+			final long p = (long) i * bits;
+			final int w = (int) (p >>> 6), offset = (int) (p & 63);
+			long c = words[w] >>> offset;
+			if(offset + bits > 64) {
+				c |= words[w + 1] << (64 - offset);
+			}
+			final int cell = (int) (c & mask);
+			// each case shot appears once
+			if((shots[cell >>> 6] & 1L << cell) == 0) {
+				throw new IOException("Corrupted save file");
+			}
+			shots[cell >>> 6] &= ~(1L << cell);
+			shoot(b, cell, strat);
+		}
+	}
+
+	/**
+	 * Encode the state of a generator : flags, then its state and its increment
+	 * @param r generator, or null
+	 * @param buf buffer receiving the generator
+	 */
+	private static void encode(GameRandom r, ByteBuffer buf) {
+		if(r == null) {
+			buf.put((byte) 0).putLong(0).putLong(0);
+		} else {
+			buf.put((byte) (HAS_RANDOM | (r.isSeeded() ? SEEDED : 0)));
+			buf.putLong(r.state()).putLong(r.gamma());
+		}
+	}
+
+	/**
+	 * @return the generator encoded, null if there was none
+	 */
+	private static GameRandom decodeRandom(ByteBuffer buf) {
+		final byte flags = buf.get();
+		final long state = buf.getLong(), gamma = buf.getLong();
+		return (flags & HAS_RANDOM) == 0 ? null : new GameRandom(state, gamma, (flags & SEEDED) != 0);
+	}
+
+	/**
+	 * Encode a ship as a fixed record
+	 * @param s ship to encode
+	 * @param buf buffer receiving the ship
+	 */
+	public void encode(Ship s, ByteBuffer buf) {
+		buf.put((byte) s.letter().charAt(0));
+		buf.put(s.getIsPlaced() ? PLACED : 0);
+		buf.putShort((short) s.getX());
+		buf.putShort((short) s.getY());
+		buf.put((byte) s.getWidth());
+		buf.put((byte) s.getHeight());
+	}
+
+	/**
+	 * Decode a ship record
+	 * @param buf buffer holding the ship
+	 * @return the decoded ship
+	 * @throws IOException if the type of ship is unknown
+	 */
+	public Ship decodeShip(ByteBuffer buf) throws IOException {
+		final char type = (char) buf.get();
+		final byte flags = buf.get();
+		final int x = buf.getShort(), y = buf.getShort();
+		final int width = buf.get() & 0xFF, height = buf.get() & 0xFF;
+
+		Ship s = newShip(type, width, height);
+		if((flags & PLACED) != 0) {
+			s.setPosition(x, y);
+		}
+		return s;
+	}
+
+	/**
+	 * Create a ship
+	 * @param type letter of the ship
+	 * @param width width of the ship
+	 * @param height height of the ship
+	 * @return a ship of this type, turned to have this width
+	 * @throws IOException if the type of ship is unknown
+	 */
+	Ship newShip(char type, int width, int height) throws IOException {
+		Ship s;
+		switch(type) {
+		case 'C':
+			s = new Cruiser();
+			break;
+		case 'G':
+			s = new Gondola();
+			break;
+		default:
+			throw new IOException("Unknown ship " + type);
+		}
+		if(s.getWidth() != width || s.getHeight() != height) {
+			s.changeOrientation();
+		}
+		return s;
+	}
+
+
+	private static byte[] name(String name) {
+		return name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String readName(ByteBuffer buf) {
+		byte[] b = new byte[buf.getShort()];
+		buf.get(b);
+		return b.length == 0 ? null : new String(b, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param ships ships of a fleet
+	 * @return number of cruisers and of gondolas of the fleet
+	 * @throws IllegalArgumentException if a ship is of another type
+	 */
+	private static int[] count(List<Ship> ships) {
+		int[] fleet = new int[2];
+		for(Ship s : ships) {
+			if(s instanceof Cruiser) {
+				fleet[0]++;
+			} else if(s instanceof Gondola) {
+				fleet[1]++;
+			} else {
+				throw new IllegalArgumentException("Unknown ship " + s.letter());
+			}
+		}
+		return fleet;
+	}
+
+	private List<Ship> decodeShips(int nbShips, ByteBuffer buf) throws IOException {
+		List<Ship> ships = new ArrayList<>(nbShips);
+		for(int i = 0; i < nbShips; i++) {
+			ships.add(decodeShip(buf));
+		}
+		return ships;
+	}
+
+	/**
+	 * @return the factory of this fleet, the shared one for the default fleet
+	 */
+	private static ModernShipFactory fleet(int cruisers, int gondolas) {
+		return cruisers == 1 && gondolas == 1 ? ModernShipFactory.getInstance() : ModernShipFactory.fleet(cruisers, gondolas);
+	}
+
+	/**
+	 * @return the strategy of this name looking for this fleet, the random
+	 * strategy if the name is unknown
+	 */
+	private static ComputerStrategy strategy(String name, ModernShipFactory fleet) {
+		ComputerStrategy strat = name == null ? null
+				: ComputerStrategyFactory.getInstance().newStrategy(name, fleet);
+		return strat != null ? strat : ComputerStrategyFactory.getInstance().newStrategy(ComputerStrategyFactory.RANDOM);
+	}
+
+	private static PlacementStrategy placement(String name) {
+		if("Constraint".equals(name)) {
+			return PlacementConstraintStrategy.getInstance();
+		}
+		return PlacementRandomStrategy.getInstance();
+	}
+
+
+	/**
+	 * Decode a save written with the java serialization
+	 * @param buf buffer holding the serialized model
+	 * @return the decoded model
+	 * @throws IOException if the model can't be read
+	 */
+	private Model decodeLegacy(ByteBuffer buf) throws IOException {
+		byte[] bytes = new byte[buf.remaining()];
+		buf.get(bytes);
+		try (ObjectInputStream ois = new LegacyInputStream(new ByteArrayInputStream(bytes))) {
+			return (Model) ois.readObject();
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException("Not a save file", e);
+		}
+	}
+
+	/**
+	 * Reads the java serialization of former versions : a class whose serial
+	 * version changed is read with its current description, the serialized
+	 * fields being unchanged
+	 */
+	private static class LegacyInputStream extends ObjectInputStream {
+
+		LegacyInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		@Override
+		protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+			ObjectStreamClass read = super.readClassDescriptor();
+			if(read.getName().startsWith("model.")) {
+				ObjectStreamClass local = ObjectStreamClass.lookup(Class.forName(read.getName()));
+				if(local != null && local.getSerialVersionUID() != read.getSerialVersionUID()) {
+					return local;
+				}
+			}
+			return read;
+		}
+	}
+
+}
@@ -1,11 +1,18 @@
 package model;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ModelDAO {
 	
@@ -14,8 +21,16 @@ public class ModelDAO {
 	public static ModelDAO getInstance() {
 		return instance;
 	}
+	
+	// background thread doing the asynchronous I/O
+	private final ExecutorService io;
 
 	private ModelDAO() {
+		io = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "ModelDAO I/O");
+			t.setDaemon(true);
+			return t;
+		});
 	}
 	
 	/**
@@ -25,22 +40,34 @@ public class ModelDAO {
 	 * @throws IOException
 	 */
 	public void save(Model m, String fn) throws IOException {
-		//we parse the objects of a state
+		//we encode the state of the game (see ModelCodec)
 		
 		try{
-			FileOutputStream fos = new FileOutputStream(fn+".souss");//create new file
-			ObjectOutputStream oos = new ObjectOutputStream(fos);
-			
-			oos.writeObject(m);//we write in oos
-			
-			oos.close();//we close oos
-			
+			write(ModelCodec.getInstance().encode(m), fn);
 		}catch(IOException err){
 			System.err.println("Impossible to save the game");
 		}
 		
 	}
 	
+	/**
+	 * 
+	 * @param buf encoded game (see ModelCodec)
+	 * @param fn name of the save file
+	 * @throws IOException
+	 */
+	void write(ByteBuffer buf, String fn) throws IOException {
+		FileChannel fc = FileChannel.open(Paths.get(fn+".souss"), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);//create new file
+		try {
+			while(buf.hasRemaining()) {
+				fc.write(buf);//we write in the file
+			}
+		} finally {
+			fc.close();//we close the file
+		}
+	}
+	
 	/**
 	 * 
 	 * @param name name of the save file
@@ -49,17 +76,140 @@ public class ModelDAO {
 	 */
 	public Model load(String name) throws IOException {
 		Model m = null;
-		try{
-			FileInputStream fis = new FileInputStream(name);//read a save file
-			ObjectInputStream ois = new ObjectInputStream(fis);//flux object
-			m = (Model)ois.readObject();
-			ois.close();
-		}catch(IOException | ClassNotFoundException e){
+		try(FileChannel fc = FileChannel.open(Paths.get(name), StandardOpenOption.READ)){//read a save file
+			ByteBuffer buf = ByteBuffer.allocate((int) fc.size());
+			while(buf.hasRemaining() && fc.read(buf) >= 0) {
+			}
+			buf.flip();
+			m = ModelCodec.getInstance().decode(buf.duplicate());//new or former format
+			m.setJournal(MoveJournal.replay(m, name, buf));//moves played since the save
+		}catch(IOException | RuntimeException e){
+			// a corrupted file may also fail with a RuntimeException
 			System.err.println("Impossible to load the file");
+			m = null;
 		}
 		
 		return m;
 	}
+	
+	/**
+	 * Save a game without blocking : the model is encoded right away, the
+	 * file is written in the background
+	 * @param m Model that we want to save
+	 * @param fn name of the save file
+	 * @return completed once the file is written
+	 */
+	public CompletableFuture<Void> saveAsync(Model m, String fn) {
+		return saveAsync(ModelCodec.getInstance().encode(m), fn);//snapshot of the game
+	}
+	
+	/**
+	 * Write an encoded game without blocking
+	 * @param buf encoded game (see ModelCodec)
+	 * @param fn name of the save file
+	 * @return completed once the file is written
+	 */
+	CompletableFuture<Void> saveAsync(ByteBuffer buf, String fn) {
+		final Set<StandardOpenOption> options = EnumSet.of(StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		
+		final CompletableFuture<Void> result = new CompletableFuture<>();
+		io.execute(() -> {
+			try {
+				AsynchronousFileChannel fc = AsynchronousFileChannel.open(Paths.get(fn+".souss"), options, io);
+				fc.write(buf, 0, fc, new CompletionHandler<Integer, AsynchronousFileChannel>() {
+					long position = 0;
+					
+					@Override
+					public void completed(Integer written, AsynchronousFileChannel fc) {
+						position += written;
+						if(buf.hasRemaining()) {
+							fc.write(buf, position, fc, this);
+						} else {
+							complete(result, null, close(fc, null));
+						}
+					}
+					
+					@Override
+					public void failed(Throwable err, AsynchronousFileChannel fc) {
+						complete(result, null, close(fc, err));
+					}
+				});
+			} catch (IOException | RuntimeException err) {
+				result.completeExceptionally(err);
+			}
+		});
+		return result;
+	}
+	
+	/**
+	 * Load a game without blocking : the file is read and decoded in the
+	 * background
+	 * @param name name of the save file
+	 * @return completed with the model that we loaded
+	 */
+	public CompletableFuture<Model> loadAsync(String name) {
+		final CompletableFuture<Model> result = new CompletableFuture<>();
+		io.execute(() -> {
+			try {
+				AsynchronousFileChannel fc = AsynchronousFileChannel.open(Paths.get(name),
+						EnumSet.of(StandardOpenOption.READ), io);
+				final ByteBuffer buf = ByteBuffer.allocate((int) fc.size());
+				fc.read(buf, 0, fc, new CompletionHandler<Integer, AsynchronousFileChannel>() {
+					
+					@Override
+					public void completed(Integer read, AsynchronousFileChannel fc) {
+						if(read >= 0 && buf.hasRemaining()) {
+							fc.read(buf, buf.position(), fc, this);
+							return;
+						}
+						buf.flip();
+						try {
+							Model m = ModelCodec.getInstance().decode(buf.duplicate());//new or former format
+							m.setJournal(MoveJournal.replay(m, name, buf));//moves played since the save
+							complete(result, m, close(fc, null));
+						} catch (IOException | RuntimeException err) {
+							complete(result, null, close(fc, err));
+						}
+					}
+					
+					@Override
+					public void failed(Throwable err, AsynchronousFileChannel fc) {
+						complete(result, null, close(fc, err));
+					}
+				});
+			} catch (IOException | RuntimeException err) {
+				result.completeExceptionally(err);
+			}
+		});
+		return result;
+	}
+	
+	/**
+	 * Close a channel at the end of an asynchronous operation
+	 * @param fc channel to close
+	 * @param err error of the operation, or null if it succeeded
+	 * @return error of the operation or of the closing, or null
+	 */
+	private static Throwable close(AsynchronousFileChannel fc, Throwable err) {
+		try {
+			fc.close();
+		} catch (IOException e) {
+			if(err == null) {
+				err = e;
+			}
+		}
+		return err;
+	}
+	
+	private static <T> void complete(CompletableFuture<T> result, T value, Throwable err) {
+		if(err != null) {
+			result.completeExceptionally(err);
+		} else {
+			result.complete(value);
+		}
+	}
+	
 	/**
 	 * 
 	 * @param name name of the file
@@ -0,0 +1,109 @@
+package model;
+
+import model.ship.Ship;
+
+/**
+ * Change of the model, given to the observers of the model.
+ *
+ * A shot or a placement only concerns a few cases of one battlefield, so the
+ * observers can update these cases alone ; NEW_GAME means that everything
+ * may have changed, the size of the battlefields included.
+ *
+ */
+public class ModelEvent {
+
+	public enum Type{CELL_SHOT, SHIP_PLACED, STATE_CHANGED, NEW_GAME};
+
+	private final Type type;
+	private final int field;
+	private final int x, y;
+	private final byte result;
+	private final Ship ship;
+
+	private ModelEvent(Type type, int field, int x, int y, byte result, Ship ship) {
+		this.type = type;
+		this.field = field;
+		this.x = x;
+		this.y = y;
+		this.result = result;
+		this.ship = ship;
+	}
+
+	/**
+	 * A case was shot
+	 * @param field battlefield shot (Model.PLAYER for the ally one, Model.PC for the opponent one)
+	 * @param x abscissa of the case
+	 * @param y ordinate of the case
+	 * @param result outcome of the shot (Ship.MISS, Ship.HIT, ...)
+	 * @return the event
+	 */
+	public static ModelEvent cellShot(int field, int x, int y, byte result) {
+		return new ModelEvent(Type.CELL_SHOT, field, x, y, result, null);
+	}
+
+	/**
+	 * A ship was placed
+	 * @param field battlefield of the ship (Model.PLAYER or Model.PC)
+	 * @param s the ship
+	 * @return the event
+	 */
+	public static ModelEvent shipPlaced(int field, Ship s) {
+		return new ModelEvent(Type.SHIP_PLACED, field, s.getX(), s.getY(), Ship.MISS, s);
+	}
+
+	/**
+	 * The state of the game or the ships to place changed
+	 * @return the event
+	 */
+	public static ModelEvent stateChanged() {
+		return new ModelEvent(Type.STATE_CHANGED, -1, -1, -1, Ship.MISS, null);
+	}
+
+	/**
+	 * A new game began, or a game was loaded
+	 * @return the event
+	 */
+	public static ModelEvent newGame() {
+		return new ModelEvent(Type.NEW_GAME, -1, -1, -1, Ship.MISS, null);
+	}
+
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return battlefield concerned (Model.PLAYER or Model.PC), or -1
+	 */
+	public int getField() {
+		return field;
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * @return outcome of the shot, for CELL_SHOT
+	 */
+	public byte getResult() {
+		return result;
+	}
+
+	/**
+	 * @return the ship placed, for SHIP_PLACED
+	 */
+	public Ship getShip() {
+		return ship;
+	}
+
+	@Override
+	public String toString() {
+		return type + (field < 0 ? "" : " " + field + " (" + x + "," + y + ")");
+	}
+
+}
@@ -0,0 +1,314 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import exception.NotInFieldException;
+import model.ship.Ship;
+
+/**
+ * Append-only journal of the moves played since the last snapshot of a game.
+ *
+ * The journal of the save "fn.souss" is "fn.journal". It starts with the
+ * magic number "SJNL" and the CRC of the snapshot it follows, then each move
+ * is a fixed record of 8 bytes : kind and player, letter, width and height of
+ * the ship, x, y (2 bytes each). The end of a turn is a record of the player
+ * whose turn begins, followed by the steps done by the generator of the
+ * computer strategy since the snapshot (7 bytes). A record is written as soon
+ * as the move is played, so it survives a crash of the game, but the journal
+ * is only forced to the disk every SYNC_EVERY records.
+ *
+ * A journal which does not follow the snapshot on the disk is ignored, and a
+ * record cut by a crash is dropped. The shots of the computer are replayed
+ * through its strategy, and a salvo of the computer cut by a crash is
+ * finished once the journal is replayed. Once the journal holds COMPACT_AFTER
+ * records, the game is written as a new snapshot and the journal restarts.
+ *
+ */
+public class MoveJournal implements Closeable {
+
+	/** "SJNL" */
+	public static final int MAGIC = 0x534A4E4C;
+
+	public static final int RECORD = 8;
+
+	/** Kinds of records */
+	static final int SHOT = 1, PLACE = 2, STATE = 3, TURN = 4;
+
+	/** Steps of the generator written in a record of the end of a turn */
+	private static final long STEPS = (1L << 56) - 1;
+
+	/** Number of records written between two forces to the disk */
+	private static final int SYNC_EVERY = 16;
+	/** Number of records after which the game is compacted in a new snapshot */
+	private static final int COMPACT_AFTER = 4096;
+
+	private final String fn;
+	private FileChannel fc;
+	private int crc;
+	// state of the generator of the strategy in the snapshot
+	private long base;
+	// records played before the journal is opened
+	private ByteBuffer pending = ByteBuffer.allocate(16 * RECORD);
+	private final ByteBuffer record = ByteBuffer.allocate(RECORD);
+	private int records, unsynced;
+
+	/**
+	 * Journal of the moves following a snapshot ; the moves are kept in memory
+	 * until the journal is opened, once the snapshot is on the disk
+	 * @param fn name of the save, without extension
+	 * @param snapshot encoded snapshot (see ModelCodec), left unchanged
+	 * @param r generator of the computer strategy in the snapshot, or null
+	 */
+	MoveJournal(String fn, ByteBuffer snapshot, GameRandom r) {
+		this.fn = fn;
+		crc = crc(snapshot);
+		base = r == null ? 0 : r.state();
+	}
+
+	/**
+	 * Create the journal on the disk, with the moves played since the snapshot
+	 * @throws IOException
+	 */
+	synchronized void open() throws IOException {
+		if(fc != null) {
+			return;
+		}
+		fc = FileChannel.open(Paths.get(fn + ".journal"), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		pending.flip();
+		write(header(crc));
+		write(pending);
+		pending = null;
+		fc.force(false);
+		unsynced = 0;
+	}
+
+	/**
+	 * Record a move
+	 * @param kind SHOT, PLACE or STATE
+	 * @param player player doing the move
+	 * @param s ship placed, or null
+	 * @param x abscissa of the move (ordinal of the state for STATE)
+	 * @param y ordinate of the move
+	 * @return true if the journal should be compacted
+	 * @throws IOException
+	 */
+	synchronized boolean append(int kind, int player, Ship s, int x, int y) throws IOException {
+		record.clear();
+		record.put((byte) (kind << 4 | player));
+		record.put(s == null ? 0 : (byte) s.letter().charAt(0));
+		record.put(s == null ? 0 : (byte) s.getWidth());
+		record.put(s == null ? 0 : (byte) s.getHeight());
+		record.putShort((short) x);
+		record.putShort((short) y);
+		record.flip();
+		return add();
+	}
+
+	/**
+	 * Record the end of a turn
+	 * @param player player whose turn begins
+	 * @param r generator of the computer strategy, or null
+	 * @return true if the journal should be compacted
+	 * @throws IOException
+	 */
+	synchronized boolean turn(int player, GameRandom r) throws IOException {
+		record.clear();
+		record.putLong(r == null ? 0 : r.stepsSince(base) & STEPS);
+		record.put(0, (byte) (TURN << 4 | player));
+		record.flip();
+		return add();
+	}
+
+	/**
+	 * write the record, or keep it until the journal is opened
+	 */
+	private boolean add() throws IOException {
+		if(fc == null) {
+			if(pending.remaining() < RECORD) {
+				pending.flip();
+				pending = ByteBuffer.allocate(2 * pending.capacity()).put(pending);
+			}
+			pending.put(record);
+		} else {
+			write(record);
+			if(++unsynced >= SYNC_EVERY) {
+				sync();
+			}
+		}
+		return ++records >= COMPACT_AFTER;
+	}
+
+	/**
+	 * Force the records to the disk
+	 * @throws IOException
+	 */
+	public synchronized void sync() throws IOException {
+		if(fc != null && unsynced > 0) {
+			fc.force(false);
+			unsynced = 0;
+		}
+	}
+
+	/**
+	 * Write the game as a new snapshot and empty the journal. The snapshot is
+	 * written aside then renamed, so a crash leaves either the former snapshot
+	 * and its journal, or the new snapshot. Nothing is done while the journal
+	 * is not open.
+	 * @param m game of the journal
+	 * @throws IOException
+	 */
+	synchronized void compact(Model m) throws IOException {
+		if(fc == null) {
+			return;
+		}
+		ByteBuffer snapshot = ModelCodec.getInstance().encode(m);
+		crc = crc(snapshot);
+		base = random(m) == null ? 0 : random(m).state();
+		Path tmp = Paths.get(fn + ".souss.tmp");
+		try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while(snapshot.hasRemaining()) {
+				out.write(snapshot);
+			}
+			out.force(false);
+		}
+		Files.move(tmp, Paths.get(fn + ".souss"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		fc.truncate(0);
+		fc.position(0);
+		write(header(crc));
+		fc.force(false);
+		records = 0;
+		unsynced = 0;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if(fc != null) {
+			sync();
+			fc.close();
+		}
+	}
+
+
+	/**
+	 * Replay the journal of a save on the game read from its snapshot
+	 * @param m game read from the snapshot
+	 * @param name name of the save file
+	 * @param snapshot content of the save file, left unchanged
+	 * @return the journal, open to record the next moves, or null if the save
+	 * has no journal
+	 * @throws IOException if a record can't be replayed
+	 */
+	static MoveJournal replay(Model m, String name, ByteBuffer snapshot) throws IOException {
+		final String fn = name.endsWith(".souss") ? name.substring(0, name.length() - 6) : name;
+		final Path path = Paths.get(fn + ".journal");
+		if(!Files.exists(path)) {
+			return null;
+		}
+		MoveJournal journal = new MoveJournal(fn, snapshot, random(m));
+		ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+		if(buf.remaining() < RECORD || buf.getInt(0) != MAGIC || buf.getInt(4) != journal.crc) {
+			return null;// journal of an other snapshot
+		}
+		buf.position(RECORD);
+
+		// a snapshot saved during a turn of the computer begins its salvo again
+		m.replayTurn(m.currentPlayer());
+		while(buf.remaining() >= RECORD) {
+			final int kind = (buf.get(buf.position()) & 0xFF) >> 4;
+			if(kind < SHOT || kind > TURN) {
+				break;
+			}
+			journal.replay(m, buf);
+			journal.records++;
+		}
+
+		// the next moves follow the last whole record
+		journal.fc = FileChannel.open(path, StandardOpenOption.WRITE);
+		journal.fc.truncate(buf.position());
+		journal.fc.position(buf.position());
+		journal.pending = null;
+		m.setJournal(journal);
+		m.finishSalvo();
+		return journal;
+	}
+
+	/**
+	 * Replay a record on a game
+	 * @param m game
+	 * @param buf buffer holding the record
+	 * @throws IOException if the record can't be replayed
+	 */
+	private void replay(Model m, ByteBuffer buf) throws IOException {
+		final long steps = buf.getLong(buf.position()) & STEPS;
+		final int head = buf.get() & 0xFF;
+		final char letter = (char) buf.get();
+		final int width = buf.get() & 0xFF, height = buf.get() & 0xFF;
+		final int x = buf.getShort(), y = buf.getShort();
+		final int player = head & 0xF;
+		try {
+			switch(head >> 4) {
+			case SHOT:
+				m.replayShot(player, x, y);
+				break;
+			case PLACE:
+				Ship s = ModelCodec.getInstance().newShip(letter, width, height);
+				s.setPosition(x, y);
+				if(!m.replayPlacement(player, s)) {
+					throw new IOException("Ship not placeable");
+				}
+				break;
+			case STATE:
+				m.replayState(Model.GameState.values()[x]);
+				break;
+			case TURN:
+				m.replayTurn(player);
+				if(random(m) != null) {
+					random(m).restore(base, steps);
+				}
+				break;
+			}
+		} catch (NotInFieldException | IndexOutOfBoundsException e) {
+			throw new IOException("Corrupted journal", e);
+		}
+	}
+
+
+	/**
+	 * @return generator of the computer strategy of a game, or null
+	 */
+	private static GameRandom random(Model m) {
+		return m.getStrat() == null ? null : m.getStrat().getRandom();
+	}
+
+	private void write(ByteBuffer buf) throws IOException {
+		while(buf.hasRemaining()) {
+			fc.write(buf);
+		}
+	}
+
+	private static ByteBuffer header(int crc) {
+		ByteBuffer header = ByteBuffer.allocate(RECORD);
+		header.putInt(MAGIC).putInt(crc);
+		header.flip();
+		return header;
+	}
+
+	private static int crc(ByteBuffer snapshot) {
+		CRC32 crc = new CRC32();
+		crc.update(snapshot.duplicate());
+		return (int) crc.getValue();
+	}
+
+}
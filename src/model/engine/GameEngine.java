@@ -0,0 +1,142 @@
+package model.engine;
+
+import exception.NotInFieldException;
+import exception.ShipException;
+import model.BattleField;
+import model.GameRandom;
+import model.ship.Ship;
+import model.ship.factory.ShipFactory;
+import model.strategy.ComputerStrategy;
+import model.strategy.PlacementStrategy;
+
+/**
+ * Headless game between two computer strategies.
+ *
+ * Unlike Model, the engine has no observers and no logging : it drives the
+ * battlefields and the strategies directly and reports each move as a
+ * primitive result, which makes it suited to batch simulations.
+ *
+ */
+public class GameEngine {
+
+	/** Players of the engine */
+	public static final int FIRST = 0, SECOND = 1;
+
+	/** Result of a move ending the game, in addition to Ship.MISS, Ship.HIT and Ship.SUNK */
+	public static final int WON = 4;
+
+	private final BattleField[] fields = new BattleField[2];
+	private final ComputerStrategy[] strategies = new ComputerStrategy[2];
+	private final int[] shots = new int[2];
+
+	private int currentPlayer;
+	private int winner = -1;
+
+	/**
+	 * Set up a game, both fleets being placed by the placement strategy
+	 * @param size size of the battlefields
+	 * @param fleet factory giving the ships of each player
+	 * @param placement placement strategy of both players
+	 * @param first attack strategy of the player who begins
+	 * @param second attack strategy of the other player
+	 * @throws ShipException if a fleet can't be placed
+	 */
+	public GameEngine(int size, ShipFactory fleet, PlacementStrategy placement,
+			ComputerStrategy first, ComputerStrategy second) throws ShipException {
+		this(size, fleet, placement, first, second, new GameRandom());
+	}
+
+	/**
+	 * Set up a game whose draws all come from a generator : a seeded
+	 * generator gives the same game each time
+	 * @param size size of the battlefields
+	 * @param fleet factory giving the ships of each player
+	 * @param placement placement strategy of both players
+	 * @param first attack strategy of the player who begins
+	 * @param second attack strategy of the other player
+	 * @param random generator of the game, split for the placements and the strategies
+	 * @throws ShipException if a fleet can't be placed
+	 */
+	public GameEngine(int size, ShipFactory fleet, PlacementStrategy placement,
+			ComputerStrategy first, ComputerStrategy second, GameRandom random) throws ShipException {
+		strategies[FIRST] = first;
+		strategies[SECOND] = second;
+		for(int p = FIRST; p <= SECOND; p++) {
+			fields[p] = new BattleField(size);
+			placement.placeShips(fields[p], fleet.getShips(), random.split());
+		}
+		first.setRandom(random.split());
+		second.setRandom(random.split());
+		currentPlayer = FIRST;
+	}
+
+	/**
+	 * Play a single shot of the current player
+	 * @return Ship.MISS, Ship.HIT, Ship.SUNK, Ship.ALREADY_HIT, or WON if the shot
+	 * ended the game
+	 * @throws NotInFieldException if a strategy shoots out of the field
+	 */
+	public int step() throws NotInFieldException {
+		if(winner >= 0) {
+			return WON;
+		}
+		final int target = 1 - currentPlayer;
+		final BattleField field = fields[target];
+		strategies[currentPlayer].shot(field);
+		shots[currentPlayer]++;
+
+		final int result = field.lastShotResult();
+		if(result == Ship.SUNK && field.won()) {
+			winner = currentPlayer;
+			return WON;
+		}
+		currentPlayer = target;
+		return result;
+	}
+
+	/**
+	 * Play until one of the players destroyed every ship of the other
+	 * @return the winner (FIRST or SECOND)
+	 * @throws NotInFieldException if a strategy shoots out of the field
+	 */
+	public int playToEnd() throws NotInFieldException {
+		while(step() != WON) {
+		}
+		return winner;
+	}
+
+	/**
+	 *
+	 * @return the winner, or -1 while the game is not over
+	 */
+	public int winner() {
+		return winner;
+	}
+
+	/**
+	 *
+	 * @return the player who shoots next
+	 */
+	public int currentPlayer() {
+		return currentPlayer;
+	}
+
+	/**
+	 *
+	 * @param player FIRST or SECOND
+	 * @return number of shots fired by the player
+	 */
+	public int shots(int player) {
+		return shots[player];
+	}
+
+	/**
+	 *
+	 * @param player FIRST or SECOND
+	 * @return battlefield holding the ships of the player
+	 */
+	public BattleField getField(int player) {
+		return fields[player];
+	}
+
+}
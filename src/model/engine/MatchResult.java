@@ -0,0 +1,143 @@
+package model.engine;
+
+import java.util.Arrays;
+
+/**
+ * Aggregated outcome of the games played between two strategies
+ *
+ */
+public class MatchResult {
+
+	private final String[] names;
+	private final int games;
+	private final int aborted;
+	private final int[] wins = new int[2];
+	private final int[][] shotsToWin = new int[2][];
+
+	/**
+	 *
+	 * @param first name of the first strategy
+	 * @param second name of the second strategy
+	 * @param winners winning side of each game (0 or 1), -1 for an aborted game
+	 * @param shots number of shots fired by the winner of each game
+	 */
+	public MatchResult(String first, String second, byte[] winners, int[] shots) {
+		names = new String[] {first, second};
+		games = winners.length;
+
+		int failures = 0;
+		for(byte w : winners) {
+			if(w < 0) {
+				failures++;
+			} else {
+				wins[w]++;
+			}
+		}
+		aborted = failures;
+
+		for(int side = 0; side < 2; side++) {
+			int[] s = new int[wins[side]];
+			int n = 0;
+			for(int g = 0; g < games; g++) {
+				if(winners[g] == side) {
+					s[n++] = shots[g];
+				}
+			}
+			Arrays.sort(s);
+			shotsToWin[side] = s;
+		}
+	}
+
+	/**
+	 *
+	 * @param side 0 for the first strategy, 1 for the second one
+	 * @return name of the strategy
+	 */
+	public String getName(int side) {
+		return names[side];
+	}
+
+	/**
+	 *
+	 * @return number of games of the match
+	 */
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 *
+	 * @return number of games which could not be played to the end
+	 */
+	public int getAborted() {
+		return aborted;
+	}
+
+	/**
+	 *
+	 * @param side 0 for the first strategy, 1 for the second one
+	 * @return number of games won by the strategy
+	 */
+	public int wins(int side) {
+		return wins[side];
+	}
+
+	/**
+	 *
+	 * @param side 0 for the first strategy, 1 for the second one
+	 * @return ratio of finished games won by the strategy
+	 */
+	public double winRate(int side) {
+		final int finished = games - aborted;
+		return finished == 0 ? 0 : (double) wins[side] / finished;
+	}
+
+	/**
+	 *
+	 * @param side 0 for the first strategy, 1 for the second one
+	 * @return mean number of shots the strategy needed in the games it won
+	 */
+	public double meanShotsToWin(int side) {
+		final int[] s = shotsToWin[side];
+		if(s.length == 0) {
+			return 0;
+		}
+		long sum = 0;
+		for(int v : s) {
+			sum += v;
+		}
+		return (double) sum / s.length;
+	}
+
+	/**
+	 * Nearest-rank percentile of the shots the strategy needed to win
+	 * @param side 0 for the first strategy, 1 for the second one
+	 * @param p percentile, between 0 and 100
+	 * @return number of shots, or 0 if the strategy never won
+	 */
+	public int percentileShotsToWin(int side, double p) {
+		final int[] s = shotsToWin[side];
+		if(s.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(p / 100 * s.length);
+		return s[Math.max(0, Math.min(s.length - 1, rank - 1))];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(names[0]).append(" vs ").append(names[1]).append(" (").append(games).append(" games");
+		if(aborted > 0) {
+			sb.append(", ").append(aborted).append(" aborted");
+		}
+		sb.append(")\n");
+		for(int side = 0; side < 2; side++) {
+			sb.append(String.format("  %-10s win rate %5.1f%%  shots to win: mean %6.2f  p50 %4d  p90 %4d  p99 %4d%n",
+					names[side], 100 * winRate(side), meanShotsToWin(side),
+					percentileShotsToWin(side, 50), percentileShotsToWin(side, 90), percentileShotsToWin(side, 99)));
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,204 @@
+package model.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import exception.ShipException;
+import model.GameRandom;
+import model.ship.factory.ModernShipFactory;
+import model.ship.factory.ShipFactory;
+import model.strategy.ComputerStrategy;
+import model.strategy.ComputerStrategyFactory;
+import model.strategy.PlacementConstraintStrategy;
+import model.strategy.PlacementStrategy;
+
+/**
+ * Plays every pair of registered strategies against each other a given
+ * number of times, the games being spread over a fork-join pool.
+ *
+ * Each game asks the suppliers for new strategies, so that concurrent games
+ * share no state, and the strategies take turns to begin so that the first
+ * move does not bias the results. Each game has its own generator split from
+ * the one of the tournament, so that a seeded tournament gives the same
+ * results each time.
+ *
+ */
+public class Tournament {
+
+	/** Number of games below which a task is not split any more */
+	private static final int THRESHOLD = 64;
+
+	private final int size;
+	private final ShipFactory fleet;
+	private final PlacementStrategy placement;
+	private final int games;
+	private GameRandom random = new GameRandom();
+	private final Map<String, Supplier<ComputerStrategy>> strategies = new LinkedHashMap<>();
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	/**
+	 *
+	 * @param size size of the battlefields
+	 * @param fleet factory giving the ships of each player
+	 * @param placement placement strategy of both players
+	 * @param games number of games played by each pair of strategies
+	 */
+	public Tournament(int size, ShipFactory fleet, PlacementStrategy placement, int games) {
+		this.size = size;
+		this.fleet = fleet;
+		this.placement = placement;
+		this.games = games;
+	}
+
+	/**
+	 * Register a strategy
+	 * @param name name of the strategy in the results
+	 * @param strategy gives the strategy to use for a game
+	 * @return this tournament
+	 */
+	public Tournament addStrategy(String name, Supplier<ComputerStrategy> strategy) {
+		strategies.put(name, strategy);
+		return this;
+	}
+
+	/**
+	 * Draw the games from a seed, to replay the tournament
+	 * @param seed seed of the tournament
+	 */
+	public void setSeed(long seed) {
+		random = new GameRandom(seed);
+	}
+
+	/**
+	 * Set the pool the games are played on (common pool by default)
+	 * @param pool fork-join pool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Play every pair of registered strategies
+	 * @return result of each match
+	 */
+	public List<MatchResult> run() {
+		List<String> names = new ArrayList<>(strategies.keySet());
+		List<MatchResult> results = new ArrayList<>();
+		for(int i = 0; i < names.size(); i++) {
+			for(int j = i + 1; j < names.size(); j++) {
+				results.add(play(names.get(i), names.get(j)));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Play the games between two strategies
+	 * @param first name of the first strategy
+	 * @param second name of the second strategy
+	 * @return result of the match
+	 */
+	public MatchResult play(String first, String second) {
+		byte[] winners = new byte[games];
+		int[] shots = new int[games];
+		// split in the order of the games, whatever the order they are played in
+		GameRandom[] randoms = new GameRandom[games];
+		for(int g = 0; g < games; g++) {
+			randoms[g] = random.split();
+		}
+		pool.invoke(new Games(strategies.get(first), strategies.get(second), winners, shots, randoms, 0, games));
+		return new MatchResult(first, second, winners, shots);
+	}
+
+
+	/**
+	 * Plays a range of games, splitting it in halves while it is large
+	 */
+	private class Games extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Supplier<ComputerStrategy> first, second;
+		private final byte[] winners;
+		private final int[] shots;
+		private final GameRandom[] randoms;
+		private final int from, to;
+
+		Games(Supplier<ComputerStrategy> first, Supplier<ComputerStrategy> second,
+				byte[] winners, int[] shots, GameRandom[] randoms, int from, int to) {
+			this.first = first;
+			this.second = second;
+			this.winners = winners;
+			this.shots = shots;
+			this.randoms = randoms;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from <= THRESHOLD) {
+				for(int g = from; g < to; g++) {
+					playGame(g);
+				}
+			} else {
+				final int middle = (from + to) >>> 1;
+				invokeAll(new Games(first, second, winners, shots, randoms, from, middle),
+						new Games(first, second, winners, shots, randoms, middle, to));
+			}
+		}
+
+		/**
+		 * Play a game, the first strategy beginning the even games
+		 * @param g index of the game
+		 */
+		private void playGame(int g) {
+			final boolean swapped = (g & 1) == 1;
+			try {
+				GameEngine engine = swapped
+						? new GameEngine(size, fleet, placement, second.get(), first.get(), randoms[g])
+						: new GameEngine(size, fleet, placement, first.get(), second.get(), randoms[g]);
+				final int winner = engine.playToEnd();
+				winners[g] = (byte) (swapped ? 1 - winner : winner);
+				shots[g] = engine.shots(winner);
+			} catch (ShipException e) {
+				winners[g] = -1;
+			}
+		}
+	}
+
+
+	/**
+	 * Rank the computer strategies
+	 * @param args number of games per pair (10000 by default), size of the
+	 * battlefields (10 by default), numbers of cruisers and gondolas (1 and 1),
+	 * seed (none by default)
+	 */
+	public static void main(String[] args) {
+		final int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		final int size = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		final ShipFactory fleet = args.length > 3
+				? ModernShipFactory.fleet(Integer.parseInt(args[2]), Integer.parseInt(args[3]))
+				: ModernShipFactory.getInstance();
+		Tournament t = new Tournament(size, fleet, PlacementConstraintStrategy.getInstance(), games);
+		if(args.length > 4) {
+			t.setSeed(Long.parseLong(args[4]));
+		}
+		final ComputerStrategyFactory factory = ComputerStrategyFactory.getInstance();
+		for(String name : factory.getNames()) {
+			t.addStrategy(name, () -> factory.newStrategy(name, fleet));
+		}
+
+		final long start = System.nanoTime();
+		for(MatchResult r : t.run()) {
+			System.out.print(r);
+		}
+		System.out.printf("%d games per pair in %d ms%n", games, (System.nanoTime() - start) / 1000000);
+	}
+
+}
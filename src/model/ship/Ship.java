@@ -1,8 +1,16 @@
 package model.ship;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 public abstract class Ship implements Serializable {
+	
+	private static final long serialVersionUID = -9137167986730572979L;
+	
+	/** Outcomes of a shot */
+	public static final byte MISS = 0, HIT = 1, SUNK = 2, ALREADY_HIT = 3;
+	
 	protected int x;
 	protected int y;
 	protected int height;
@@ -10,6 +18,9 @@ public abstract class Ship implements Serializable {
 	protected int nbCases;
 	protected int nbCasesTouched;
 	protected boolean isPlaced;
+	/** cases hit, one bit per case row after row ; not serialized, the
+	 * battlefield replays its shots when it is read */
+	private transient long[] hits;
 	
 	public abstract String letter();
 
@@ -46,14 +57,38 @@ public abstract class Ship implements Serializable {
 	 * 
 	 * @param x abscissa of the shot
 	 * @param y ordinate of the shot
-	 * @return true if the ship received dammage at the position (x,y)
+	 * @return MISS if the shot is out of the ship, ALREADY_HIT if the case was
+	 * already hit, SUNK if the shot destroyed the ship, HIT otherwise
 	 */
-	public boolean receiveShot(int x, int y) {
-		if((x >= this.x && x < (this.x + width)) && (y >= this.y && y < (this.y + height))) {
-			nbCasesTouched++;
-			return true;
+	public byte receiveShot(int x, int y) {
+		if(!isDestructible(x, y)) {
+			return MISS;
 		}
-		return false;
+		if(hits == null) {
+			hits = new long[(nbCases + 63) >>> 6];
+		}
+		final int c = (y - this.y) * width + (x - this.x);
+		final long bit = 1L << c;
+		if((hits[c >>> 6] & bit) != 0) {
+			return ALREADY_HIT;
+		}
+		hits[c >>> 6] |= bit;
+		nbCasesTouched++;
+		return isDestroyed() ? SUNK : HIT;
+	}
+	
+	/**
+	 * 
+	 * @param x abscissa of the case
+	 * @param y ordinate of the case
+	 * @return true if the case (x,y) of the ship was hit
+	 */
+	public boolean isHit(int x, int y) {
+		if(hits == null || !isDestructible(x, y)) {
+			return false;
+		}
+		final int c = (y - this.y) * width + (x - this.x);
+		return (hits[c >>> 6] & (1L << c)) != 0;
 	}
 	
 	/**
@@ -125,6 +160,15 @@ public abstract class Ship implements Serializable {
 	public int getNbCases() {
 		return nbCases;
 	}
+	
+	/**
+	 * the damages are not kept in the save, the battlefield shoots the ship
+	 * again when it is read
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		nbCasesTouched = 0;
+	}
 
 
 
@@ -15,32 +15,48 @@ import model.ship.modern.Gondola;
  *
  */
 public class ModernShipFactory implements ShipFactory {
-	private static final ModernShipFactory instance = new ModernShipFactory();
+	private static final ModernShipFactory instance = new ModernShipFactory(1, 1);
 	
+	private final int nbCruisers;
+	private final int nbGondolas;
 	
-	private ModernShipFactory() {
+	
+	private ModernShipFactory(int cruisers, int gondolas) {
+		nbCruisers = cruisers;
+		nbGondolas = gondolas;
 	}
 	
 /**
  * return the list of Modern Ships
  */
 	public List<Ship> getShips() {
-		ArrayList<Ship> tabShip = new ArrayList<>(2);
+		ArrayList<Ship> tabShip = new ArrayList<>(nbCruisers + nbGondolas);
 
-		Ship ship1 = new Cruiser();
-		Ship ship2 = new Gondola();
-		
-		tabShip.add(ship1);
-		tabShip.add(ship2);
+		for(int i = 0; i < nbCruisers; i++) {
+			tabShip.add(new Cruiser());
+		}
+		for(int i = 0; i < nbGondolas; i++) {
+			tabShip.add(new Gondola());
+		}
 		
 		return tabShip;
 	}
 
 	/**
 	 * 
-	 * @return the instance of ModernShipFactory
+	 * @return the instance of ModernShipFactory (a cruiser and a gondola)
 	 */
 	public static ModernShipFactory getInstance() {
 		return instance;
 	}
+	
+	/**
+	 * 
+	 * @param cruisers number of cruisers of the fleet
+	 * @param gondolas number of gondolas of the fleet
+	 * @return a factory of modern ships giving the requested fleet
+	 */
+	public static ModernShipFactory fleet(int cruisers, int gondolas) {
+		return new ModernShipFactory(cruisers, gondolas);
+	}
 }
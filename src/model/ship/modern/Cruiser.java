@@ -9,6 +9,8 @@ import model.ship.Ship;
  *
  */
 public class Cruiser extends Ship {
+	
+	private static final long serialVersionUID = 2403698963337521356L;
 
 	public Cruiser() {
 		height = 8;
@@ -9,6 +9,8 @@ import model.ship.Ship;
  *
  */
 public class Gondola extends Ship {
+	
+	private static final long serialVersionUID = -8692964433765071384L;
 
 	public Gondola() {
 		height = 2;
@@ -1,12 +1,17 @@
 package model.strategy;
 
+import java.util.concurrent.Executor;
+
 import exception.NotInFieldException;
 import model.BattleField;
+import model.GameRandom;
 
 public interface ComputerStrategy {
 
-
-	
+	/**
+	 * 
+	 * @return name of the strategy in ComputerStrategyFactory
+	 */
 	public String parse();
 	
 
@@ -16,5 +21,75 @@ public interface ComputerStrategy {
 	 * @throws NotInFieldException
 	 */
 	public void shot(BattleField b) throws NotInFieldException;
+	
+	/**
+	 * choose the next case to shoot, without shooting it. It may be called out
+	 * of the event dispatch thread and take time, the battlefield not changing
+	 * until the case is shot with shot(b, c).
+	 * @param b battlefield of the enemy
+	 * @return index of the case (y * size + x), or -1 if the strategy can only
+	 * shoot with shot(b)
+	 * @throws NotInFieldException
+	 */
+	public default int aim(BattleField b) throws NotInFieldException {
+		return -1;
+	}
+	
+	/**
+	 * shoot the case chosen by aim
+	 * @param b battlefield of the enemy
+	 * @param c index of the case given by aim
+	 * @throws NotInFieldException
+	 */
+	public default void shot(BattleField b, int c) throws NotInFieldException {
+		b.shoot(c % b.size(), c / b.size());
+	}
+	
+	/**
+	 * shoot a salvo of several shots. By default the shots are done one after
+	 * the other, the strategy seeing the result of each shot before the next.
+	 * @param b battlefield of the enemy
+	 * @param xs receives the abscissas of the shots
+	 * @param ys receives the ordinates of the shots
+	 * @param results receives the outcome of the shots
+	 * @return number of shots done, less than xs.length if the battlefield
+	 * was won or has no case left
+	 * @throws NotInFieldException
+	 */
+	public default int salvo(BattleField b, int[] xs, int[] ys, byte[] results) throws NotInFieldException {
+		int n = 0;
+		for(; n < xs.length && !b.won() && b.untouchedCount() > 0; n++) {
+			shot(b);
+			xs[n] = b.lastShotX();
+			ys[n] = b.lastShotY();
+			results[n] = b.lastShotResult();
+		}
+		return n;
+	}
+	
+	/**
+	 * give the generator of the strategy, so that its draws can be replayed
+	 * @param r generator used by this strategy only
+	 */
+	public default void setRandom(GameRandom r) {
+	}
+	
+	/**
+	 * @return the generator of the strategy, to save it with the game, or
+	 * null if the strategy draws nothing
+	 */
+	public default GameRandom getRandom() {
+		return null;
+	}
+	
+	/**
+	 * give the executor choosing the shots of the computer, on which a
+	 * strategy may share the work of aim. aim must not wait for a task it
+	 * gave to the executor without doing it itself, the executor being
+	 * possibly busy with the task calling aim.
+	 * @param e executor of the computer, or null to work on the thread aiming
+	 */
+	public default void setExecutor(Executor e) {
+	}
 
 }
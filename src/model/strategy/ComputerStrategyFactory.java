@@ -0,0 +1,69 @@
+package model.strategy;
+
+import model.ship.factory.ModernShipFactory;
+import model.ship.factory.ShipFactory;
+
+/**
+ * A factory giving a new attack strategy for each game, so that games never
+ * share the state or the random generator of a strategy
+ *
+ */
+public class ComputerStrategyFactory {
+	
+	public static final String RANDOM = "Random", CROSS = "Cross", DENSITY = "Density",
+			MONTE_CARLO = "MonteCarlo";
+	
+	private static final String[] NAMES = {RANDOM, CROSS, DENSITY, MONTE_CARLO};
+	private static final ComputerStrategyFactory instance = new ComputerStrategyFactory();
+	
+	
+	private ComputerStrategyFactory() {
+	}
+	
+	/**
+	 * 
+	 * @return the instance of ComputerStrategyFactory
+	 */
+	public static ComputerStrategyFactory getInstance() {
+		return instance;
+	}
+	
+	/**
+	 * 
+	 * @return names of the available strategies
+	 */
+	public String[] getNames() {
+		return NAMES.clone();
+	}
+	
+	/**
+	 * Create a new strategy looking for the modern fleet
+	 * @param name name of the strategy (see getNames)
+	 * @return a new strategy, or null if the name is unknown
+	 */
+	public ComputerStrategy newStrategy(String name) {
+		return newStrategy(name, ModernShipFactory.getInstance());
+	}
+	
+	/**
+	 * Create a new strategy
+	 * @param name name of the strategy (see getNames)
+	 * @param fleet factory giving the ships the strategy is looking for
+	 * @return a new strategy, or null if the name is unknown
+	 */
+	public ComputerStrategy newStrategy(String name, ShipFactory fleet) {
+		switch(name) {
+		case RANDOM:
+			return new RandomComputerStrategy();
+		case CROSS:
+			return new CrossComputerStrategy();
+		case DENSITY:
+			return new DensityComputerStrategy(fleet);
+		case MONTE_CARLO:
+			return new MonteCarloComputerStrategy(fleet);
+		default:
+			return null;
+		}
+	}
+
+}
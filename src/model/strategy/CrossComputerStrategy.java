@@ -1,10 +1,13 @@
 package model.strategy;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.Random;
 
 import exception.NotInFieldException;
 import model.BattleField;
+import model.GameRandom;
+import model.ship.Ship;
 
 /**
  * 
@@ -14,19 +17,20 @@ import model.BattleField;
  */
 public class CrossComputerStrategy implements ComputerStrategy, Serializable {
 
-	private static CrossComputerStrategy instance = new CrossComputerStrategy();
+	private static final long serialVersionUID = 3887053646838429371L;
+
 	private int lastShotX;
 	private int lastShotY;
-	private Random rand;
+	private GameRandom random;
 
-	private CrossComputerStrategy() {
+	/**
+	 * The hunt state belongs to a single game : use a new strategy for each
+	 * game (see ComputerStrategyFactory)
+	 */
+	public CrossComputerStrategy() {
 		lastShotX = -1;
 		lastShotY = -1;
-		rand = new Random();
-	}
-
-	public static CrossComputerStrategy getInstance() {
-		return instance;
+		random = new GameRandom();
 	}
 	
 	
@@ -35,42 +39,47 @@ public class CrossComputerStrategy implements ComputerStrategy, Serializable {
 	 * @param b BattleField of the player
 	 */
 	public void shot(BattleField b) throws NotInFieldException {
-		if (lastShotX != -1 && lastShotX != -1) {
-			if (b.getShip(lastShotX, lastShotY) != null && b.destroyed(lastShotX, lastShotY)) {
-				lastShotX = -1;
-				lastShotY = -1;
-				normalShot(b);
-			} else if (b.getShip(lastShotX, lastShotY) != null && !b.destroyed(lastShotX, lastShotY)) {
-				finishHim(b);
+		shot(b, aim(b));
+	}
+
+	@Override
+	public int aim(BattleField b) throws NotInFieldException {
+		if (lastShotX != -1 && lastShotY != -1) {
+			final int c = finishHim(b);
+			if (c >= 0) {
+				return c;
 			}
-		} else {
-			normalShot(b);
+			// no direction is shotable
+			lastShotX = -1;
+			lastShotY = -1;
+		}
+		return normalShot(b);
+	}
+
+	@Override
+	public void shot(BattleField b, int c) throws NotInFieldException {
+		final boolean hunting = lastShotX == -1;
+		final int x = c % b.size(), y = c / b.size();
+		final byte result = b.shoot(x, y);
+		if (hunting && result == Ship.HIT) {
+			lastShotX = x;
+			lastShotY = y;
+		}
+		// the ship hunted is finished, a ship next to it may have sunk before
+		if (result == Ship.SUNK && lastShotX != -1 && b.destroyed(lastShotX, lastShotY)) {
+			lastShotX = -1;
+			lastShotY = -1;
 		}
 	}
 
 	/**
 	 * shot according to the strategy
 	 * @param b battlefield of the enemy
-	 * @throws NotInFieldException
+	 * @return index of a case we did'nt already shot
 	 */
-	private void normalShot(BattleField b) throws NotInFieldException {
-		boolean findShot = false;
-		int x = -1, y = -1;
-		while (!findShot) {
-			x = rand.nextInt(b.size());
-			y = rand.nextInt(b.size());
-			/*if (!somethingAround(b, x, y)) {
-				findShot = true;
-			}*/
-			if(!b.touched(x, y)) { // if we did'nt already shot this area
-				findShot = true;
-			}
-			//System.out.println("Searching a good shot");
-		}
-		if(b.receiveShot(x, y)) {
-			lastShotX = x;
-			lastShotY = y;
-		}
+	private int normalShot(BattleField b) {
+		final int i = random.nextInt(b.untouchedCount());
+		return b.untouchedY(i) * b.size() + b.untouchedX(i);
 	}
 
 	/**
@@ -106,32 +115,49 @@ public class CrossComputerStrategy implements ComputerStrategy, Serializable {
 	/**
 	 * finish a enemy ship already detected by the computer
 	 * @param b battlefield of the enemy
+	 * @return index of a case next to the last ship touched, or -1
 	 * @throws NotInFieldException
 	 */
-	private void finishHim(BattleField b) throws NotInFieldException {
+	private int finishHim(BattleField b) throws NotInFieldException {
 		// south
 		if (lastShotY + 1 < b.size() && !b.touched(lastShotX, lastShotY + 1)) {
-			b.receiveShot(lastShotX, lastShotY + 1);
+			return (lastShotY + 1) * b.size() + lastShotX;
 			// east
 		} else if (lastShotX + 1 < b.size() && !b.touched(lastShotX + 1, lastShotY)) {
-			b.receiveShot(lastShotX + 1, lastShotY);
+			return lastShotY * b.size() + lastShotX + 1;
 			// west
 		} else if (lastShotX - 1 >= 0 && !b.touched(lastShotX - 1, lastShotY)) {
-			b.receiveShot(lastShotX - 1, lastShotY);
+			return lastShotY * b.size() + lastShotX - 1;
 			// north
 		} else if (lastShotY - 1 >= 0 && !b.touched(lastShotX, lastShotY - 1)) {
-			b.receiveShot(lastShotX, lastShotY - 1);
-		}else { // no direction is shotable
-			lastShotX = -1;
-			lastShotY = -1;
-			normalShot(b);
+			return (lastShotY - 1) * b.size() + lastShotX;
+		}
+		return -1;
+	}
+
+	@Override
+	public void setRandom(GameRandom r) {
+		random = r;
+	}
+
+	@Override
+	public GameRandom getRandom() {
+		return random;
+	}
+
+	/**
+	 * the saves of former versions hold a java.util.Random, which is skipped
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if(random == null) {
+			random = new GameRandom();
 		}
 	}
 
 	@Override
 	public String parse() {
-		// TODO Auto-generated method stub
-		return null;
+		return ComputerStrategyFactory.CROSS;
 	}
 
 }
@@ -0,0 +1,384 @@
+package model.strategy;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import exception.NotInFieldException;
+import model.BattleField;
+import model.ship.Ship;
+import model.ship.factory.ShipFactory;
+
+/**
+ * Strategy shooting where the remaining ships are the most likely to be.
+ *
+ * For every case, the strategy counts the placements of the remaining ships
+ * which cover it without covering a missed case or a sunk ship. Only the
+ * placements covering the last shot are updated after each shot, and the
+ * densest untouched case is read from a max tree in logarithmic time.
+ * While a ship is touched but not sunk, the strategy only considers the
+ * placements going through the touched cases.
+ *
+ */
+public class DensityComputerStrategy implements ComputerStrategy, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Tree value of a case already shot, and of the padding leaves */
+	private static final int SHOT = -1, PADDING = -2;
+
+	private final int[] fleetWidths, fleetHeights;
+
+	// state of the current battlefield, rebuilt when the battlefield changes
+	private transient BattleField board;
+	private transient int size;
+	private transient int[] kindWidth, kindHeight, kindCount;
+	private transient boolean[][][] valid;
+	private transient int[][] kindDensity;
+	private transient int[] density;
+	private transient boolean[] shot, blocked;
+	private transient int[] hits;
+	private transient int nbHits;
+	private transient int[] tree;
+	private transient int leaves;
+	private transient int[] score, scored;
+
+	/**
+	 *
+	 * @param fleet factory giving the ships the strategy is looking for
+	 */
+	public DensityComputerStrategy(ShipFactory fleet) {
+		List<Ship> ships = fleet.getShips();
+		fleetWidths = new int[ships.size()];
+		fleetHeights = new int[ships.size()];
+		for(int i = 0; i < ships.size(); i++) {
+			fleetWidths[i] = ships.get(i).getWidth();
+			fleetHeights[i] = ships.get(i).getHeight();
+		}
+	}
+
+
+	/**
+	 * shot the densest untouched case
+	 * @param b battlefield of the enemy
+	 */
+	public void shot(BattleField b) throws NotInFieldException {
+		shot(b, aim(b));
+	}
+
+	@Override
+	public int aim(BattleField b) throws NotInFieldException {
+		if(b != board) {
+			rebuild(b);
+		}
+		return nbHits > 0 ? target() : hunt();
+	}
+
+	@Override
+	public void shot(BattleField b, int c) throws NotInFieldException {
+		// a saved game replays the shots without aiming
+		if(b != board) {
+			rebuild(b);
+		}
+		final int x = c % size, y = c / size;
+		markShot(c);
+		switch(b.shoot(x, y)) {
+		case Ship.SUNK:
+			sink(b.getShip(x, y));
+			break;
+		case Ship.HIT:
+			hits[nbHits++] = c;
+			break;
+		case Ship.MISS:
+			block(c);
+			break;
+		}
+	}
+
+	/**
+	 *
+	 * @return the untouched case with the highest density
+	 */
+	private int hunt() {
+		int node = 1;
+		while(node < leaves) {
+			node = tree[2 * node] >= tree[2 * node + 1] ? 2 * node : 2 * node + 1;
+		}
+		return node - leaves;
+	}
+
+	/**
+	 * Score the untouched cases with the placements going through the
+	 * touched cases of the ships not sunk yet
+	 * @return the best case, or the densest one if no placement fits
+	 */
+	private int target() {
+		int nbScored = 0;
+		for(int i = 0; i < nbHits; i++) {
+			final int hx = hits[i] % size, hy = hits[i] / size;
+			for(int k = 0; k < kindCount.length; k++) {
+				if(kindCount[k] == 0) {
+					continue;
+				}
+				for(int o = 0; o < 2; o++) {
+					if(valid[k][o] == null) {
+						continue;
+					}
+					final int w = o == 0 ? kindWidth[k] : kindHeight[k];
+					final int h = o == 0 ? kindHeight[k] : kindWidth[k];
+					for(int ay = Math.max(0, hy - h + 1); ay <= Math.min(hy, size - h); ay++) {
+						for(int ax = Math.max(0, hx - w + 1); ax <= Math.min(hx, size - w); ax++) {
+							if(!valid[k][o][ay * size + ax]) {
+								continue;
+							}
+							for(int y = ay; y < ay + h; y++) {
+								for(int c = y * size + ax, end = c + w; c < end; c++) {
+									if(!shot[c]) {
+										if(score[c] == 0) {
+											scored[nbScored++] = c;
+										}
+										score[c] += kindCount[k];
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+
+		int best = -1;
+		for(int i = 0; i < nbScored; i++) {
+			final int c = scored[i];
+			if(best < 0 || score[c] > score[best] || (score[c] == score[best] && density[c] > density[best])) {
+				best = c;
+			}
+		}
+		for(int i = 0; i < nbScored; i++) {
+			score[scored[i]] = 0;
+		}
+		return best < 0 ? hunt() : best;
+	}
+
+
+	/**
+	 * Invalidate the placements covering a missed case or a case of a sunk ship
+	 * @param c index of the case
+	 */
+	private void block(int c) {
+		blocked[c] = true;
+		final int cx = c % size, cy = c / size;
+		for(int k = 0; k < kindCount.length; k++) {
+			for(int o = 0; o < 2; o++) {
+				if(valid[k][o] == null) {
+					continue;
+				}
+				final int w = o == 0 ? kindWidth[k] : kindHeight[k];
+				final int h = o == 0 ? kindHeight[k] : kindWidth[k];
+				for(int ay = Math.max(0, cy - h + 1); ay <= Math.min(cy, size - h); ay++) {
+					for(int ax = Math.max(0, cx - w + 1); ax <= Math.min(cx, size - w); ax++) {
+						final int a = ay * size + ax;
+						if(valid[k][o][a]) {
+							valid[k][o][a] = false;
+							addPlacement(k, ax, ay, w, h, -1);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove a sunk ship from the remaining ships
+	 * @param s the sunk ship
+	 */
+	private void sink(Ship s) {
+		final int k = kindOf(s.getWidth(), s.getHeight());
+		if(k >= 0 && kindCount[k] > 0) {
+			kindCount[k]--;
+			for(int c = 0; c < density.length; c++) {
+				if(kindDensity[k][c] != 0) {
+					density[c] -= kindDensity[k][c];
+					if(!shot[c]) {
+						setLeaf(c, density[c]);
+					}
+				}
+			}
+		}
+
+		for(int y = s.getY(); y < s.getY() + s.getHeight(); y++) {
+			for(int c = y * size + s.getX(), end = c + s.getWidth(); c < end; c++) {
+				for(int i = 0; i < nbHits; i++) {
+					if(hits[i] == c) {
+						hits[i] = hits[--nbHits];
+						break;
+					}
+				}
+				if(!blocked[c]) {
+					block(c);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add (or remove) a placement to the density of the cases it covers
+	 * @param k kind of ship
+	 * @param ax abscissa of the placement
+	 * @param ay ordinate of the placement
+	 * @param w width of the placement
+	 * @param h height of the placement
+	 * @param delta 1 to add the placement, -1 to remove it
+	 */
+	private void addPlacement(int k, int ax, int ay, int w, int h, int delta) {
+		final int weight = delta * kindCount[k];
+		for(int y = ay; y < ay + h; y++) {
+			for(int c = y * size + ax, end = c + w; c < end; c++) {
+				kindDensity[k][c] += delta;
+				if(weight != 0) {
+					density[c] += weight;
+					if(!shot[c]) {
+						setLeaf(c, density[c]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param w width of a ship
+	 * @param h height of a ship
+	 * @return index of the kind of the ship, or -1
+	 */
+	private int kindOf(int w, int h) {
+		for(int k = 0; k < kindCount.length; k++) {
+			if((kindWidth[k] == w && kindHeight[k] == h) || (kindWidth[k] == h && kindHeight[k] == w)) {
+				return k;
+			}
+		}
+		return -1;
+	}
+
+
+	private void markShot(int c) {
+		shot[c] = true;
+		setLeaf(c, SHOT);
+	}
+
+	/**
+	 * Update a leaf of the max tree and its ancestors
+	 * @param c index of the case
+	 * @param value new value of the case
+	 */
+	private void setLeaf(int c, int value) {
+		int node = c + leaves;
+		tree[node] = value;
+		for(node >>= 1; node >= 1; node >>= 1) {
+			final int max = Math.max(tree[2 * node], tree[2 * node + 1]);
+			if(tree[node] == max) {
+				break;
+			}
+			tree[node] = max;
+		}
+	}
+
+
+	/**
+	 * Compute the density of a battlefield from scratch, taking into account
+	 * the shots it already received
+	 * @param b battlefield of the enemy
+	 * @throws NotInFieldException
+	 */
+	private void rebuild(BattleField b) throws NotInFieldException {
+		board = b;
+		size = b.size();
+		final int cells = size * size;
+
+		// group the ships by kind, whatever their orientation
+		int[] w = new int[fleetWidths.length], h = new int[fleetWidths.length], count = new int[fleetWidths.length];
+		int kinds = 0;
+		for(int i = 0; i < fleetWidths.length; i++) {
+			int k = 0;
+			while(k < kinds && !((w[k] == fleetWidths[i] && h[k] == fleetHeights[i])
+					|| (w[k] == fleetHeights[i] && h[k] == fleetWidths[i]))) {
+				k++;
+			}
+			if(k == kinds) {
+				w[k] = fleetWidths[i];
+				h[k] = fleetHeights[i];
+				kinds++;
+			}
+			count[k]++;
+		}
+		kindWidth = Arrays.copyOf(w, kinds);
+		kindHeight = Arrays.copyOf(h, kinds);
+		kindCount = Arrays.copyOf(count, kinds);
+
+		valid = new boolean[kinds][2][];
+		kindDensity = new int[kinds][cells];
+		density = new int[cells];
+		shot = new boolean[cells];
+		blocked = new boolean[cells];
+		hits = new int[cells];
+		nbHits = 0;
+		score = new int[cells];
+		scored = new int[cells];
+		leaves = Integer.highestOneBit(Math.max(1, cells - 1)) << 1;
+		tree = new int[2 * leaves];
+		Arrays.fill(tree, PADDING);
+
+		for(int k = 0; k < kinds; k++) {
+			for(int o = 0; o < (kindWidth[k] == kindHeight[k] ? 1 : 2); o++) {
+				final int pw = o == 0 ? kindWidth[k] : kindHeight[k];
+				final int ph = o == 0 ? kindHeight[k] : kindWidth[k];
+				valid[k][o] = new boolean[cells];
+				for(int ay = 0; ay + ph <= size; ay++) {
+					for(int ax = 0; ax + pw <= size; ax++) {
+						valid[k][o][ay * size + ax] = true;
+						for(int y = ay; y < ay + ph; y++) {
+							for(int c = y * size + ax, end = c + pw; c < end; c++) {
+								kindDensity[k][c]++;
+							}
+						}
+					}
+				}
+			}
+			for(int c = 0; c < cells; c++) {
+				density[c] += kindCount[k] * kindDensity[k][c];
+			}
+		}
+		for(int c = 0; c < cells; c++) {
+			tree[leaves + c] = density[c];
+		}
+		for(int node = leaves - 1; node >= 1; node--) {
+			tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+		}
+
+		// replay the shots already on the battlefield
+		for(int c = 0; c < cells; c++) {
+			final int x = c % size, y = c / size;
+			if(b.touched(x, y)) {
+				markShot(c);
+				if(b.getShip(x, y) == null) {
+					block(c);
+				} else {
+					hits[nbHits++] = c;
+				}
+			}
+		}
+		for(int c = 0; c < cells; c++) {
+			final int x = c % size, y = c / size;
+			if(shot[c] && !blocked[c] && b.destroyed(x, y)) {
+				sink(b.getShip(x, y));
+			}
+		}
+	}
+
+
+	@Override
+	public String parse() {
+		return ComputerStrategyFactory.DENSITY;
+	}
+
+}
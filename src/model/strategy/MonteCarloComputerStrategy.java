@@ -0,0 +1,537 @@
+package model.strategy;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import exception.NotInFieldException;
+import model.BattleField;
+import model.GameRandom;
+import model.ship.Ship;
+import model.ship.factory.ShipFactory;
+
+/**
+ * Strategy shooting the case the most often occupied in random layouts of
+ * the remaining ships which agree with the shots already done : no ship on a
+ * missed case or a sunk ship, every touched case covered by a ship which is
+ * not entirely touched.
+ *
+ * The layouts are drawn by chunks of CHUNK layouts, each chunk with its own
+ * generator, by the thread aiming and the executor of the computer if there
+ * is one (see setExecutor). In a game without seed the drawing stops after a
+ * time budget, and the layouts are kept from a turn to the next one : after a
+ * shot, only the layouts disagreeing with its result are thrown away and
+ * replaced. In a seeded game a fixed number of layouts, fitting in the same
+ * budget, is drawn again at each turn, so that a shot only depends on the
+ * generator and the shots already done, not on the time, the machine or the
+ * layouts of the former turns (a saved game continues as it would have).
+ *
+ */
+public class MonteCarloComputerStrategy implements ComputerStrategy, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Number of layouts the strategy keeps */
+	private static final int SAMPLES = 4096;
+
+	/** Time given to the drawing of the layouts for a shot without seed, in nanoseconds */
+	private static final long BUDGET = 3000000L;
+
+	/** Number of layouts drawn by a parallel task */
+	private static final int CHUNK = 64;
+
+	/** Layouts drawn at each turn of a seeded game, for each case of the battlefield */
+	private static final int SEEDED_SAMPLES_BY_CASE = 4;
+
+	/** Cases of ships drawn at each turn of a seeded game, about BUDGET of work */
+	private static final int SEEDED_SHIP_CASES = 1 << 14;
+
+	/** Number of layouts tried for each layout wanted before giving up */
+	private static final int ATTEMPTS = 16;
+
+	/** Number of random placements tried for a ship before giving up a layout */
+	private static final int TRIES = 64;
+
+	private final int[] fleetWidths, fleetHeights;
+	/** cases of the ships of the fleet */
+	private final int fleetCases;
+	private GameRandom rand;
+	private transient Executor executor;
+
+	// state of the current battlefield, rebuilt when the battlefield changes
+	private transient BattleField board;
+	private transient int size;
+	private transient boolean[] blocked, hit;
+	private transient int[] hits;
+	private transient int nbHits;
+	private transient int[] shipWidth, shipHeight;
+	private transient int nbShips;
+	// a layout is, for each remaining ship, its abscissa, ordinate, width and height
+	private transient int[][] samples;
+	private transient int nbSamples;
+	private transient int[] count, counted;
+
+	/**
+	 *
+	 * @param fleet factory giving the ships the strategy is looking for
+	 */
+	public MonteCarloComputerStrategy(ShipFactory fleet) {
+		List<Ship> ships = fleet.getShips();
+		fleetWidths = new int[ships.size()];
+		fleetHeights = new int[ships.size()];
+		for(int i = 0; i < ships.size(); i++) {
+			fleetWidths[i] = ships.get(i).getWidth();
+			fleetHeights[i] = ships.get(i).getHeight();
+		}
+		int cases = 0;
+		for(int i = 0; i < fleetWidths.length; i++) {
+			cases += fleetWidths[i] * fleetHeights[i];
+		}
+		fleetCases = cases;
+		rand = new GameRandom();
+	}
+
+	/**
+	 * shot the case the most likely to hold a ship
+	 * @param b battlefield of the enemy
+	 */
+	public void shot(BattleField b) throws NotInFieldException {
+		shot(b, aim(b));
+	}
+
+	@Override
+	public int aim(BattleField b) throws NotInFieldException {
+		if(b != board) {
+			rebuild(b);
+		}
+		if(rand.isSeeded()) {
+			Arrays.fill(samples, 0, nbSamples, null);
+			nbSamples = 0;
+			draw(seededSamples(), Long.MAX_VALUE);
+		} else {
+			draw(SAMPLES, System.nanoTime() + BUDGET);
+		}
+
+		int nbCounted = 0;
+		for(int i = 0; i < nbSamples; i++) {
+			final int[] s = samples[i];
+			for(int p = 0; p < s.length; p += 4) {
+				for(int y = s[p + 1]; y < s[p + 1] + s[p + 3]; y++) {
+					for(int c = y * size + s[p], end = c + s[p + 2]; c < end; c++) {
+						if(!hit[c]) {
+							if(count[c] == 0) {
+								counted[nbCounted++] = c;
+							}
+							count[c]++;
+						}
+					}
+				}
+			}
+		}
+		int best = -1, bestCount = 0;
+		for(int i = 0; i < nbCounted; i++) {
+			final int c = counted[i];
+			if(count[c] > bestCount) {
+				best = c;
+				bestCount = count[c];
+			}
+			count[c] = 0;
+		}
+		if(best < 0) {
+			// no layout agrees with the shots : a case at random
+			final int i = rand.nextInt(b.untouchedCount());
+			best = b.untouchedY(i) * size + b.untouchedX(i);
+		}
+		return best;
+	}
+
+	@Override
+	public void shot(BattleField b, int c) throws NotInFieldException {
+		// a saved game replays the shots without aiming
+		if(b != board) {
+			rebuild(b);
+		}
+		final int x = c % size, y = c / size;
+		switch(b.shoot(x, y)) {
+		case Ship.MISS:
+			blocked[c] = true;
+			keep(s -> covering(s, x, y) < 0);
+			break;
+		case Ship.HIT:
+			hit[c] = true;
+			hits[nbHits++] = c;
+			keep(s -> {
+				final int p = covering(s, x, y);
+				return p >= 0 && !allHit(s, p);
+			});
+			break;
+		case Ship.SUNK:
+			final Ship sunk = b.getShip(x, y);
+			sink(sunk);
+			keepSunk(sunk.getX(), sunk.getY(), sunk.getWidth(), sunk.getHeight());
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * @return layouts drawn at each turn of a seeded game : a whole number of
+	 * chunks growing with the battlefield, as long as the work of the
+	 * layouts stays within the budget of a game without seed
+	 */
+	private int seededSamples() {
+		final int samples = Math.min(SEEDED_SAMPLES_BY_CASE * size * size, SEEDED_SHIP_CASES / Math.max(1, fleetCases));
+		return Math.max(CHUNK, Math.min(SAMPLES, samples / CHUNK * CHUNK));
+	}
+
+	/**
+	 * Draw layouts until the strategy has a number of them or the deadline is
+	 * reached. The layouts are drawn by chunks, each chunk with its own
+	 * generator split from the one of the strategy. The chunks are shared
+	 * between this thread and tasks on the executor : this thread draws the
+	 * chunks no task took, so the drawing ends even if the executor is busy.
+	 * @param wanted number of layouts wanted
+	 * @param deadline value of System.nanoTime() when the drawing stops
+	 */
+	private void draw(int wanted, long deadline) {
+		final int needed = wanted - nbSamples;
+		if(needed <= 0 || nbShips == 0) {
+			return;
+		}
+		final int chunks = (needed + CHUNK - 1) / CHUNK;
+		final GameRandom[] rands = new GameRandom[chunks];
+		for(int t = 0; t < chunks; t++) {
+			rands[t] = rand.split();
+		}
+		final int[][][] drawn = new int[chunks][][];
+		final AtomicInteger next = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(chunks);
+		final Runnable task = () -> {
+			for(int t; (t = next.getAndIncrement()) < chunks;) {
+				try {
+					drawn[t] = draw(rands[t], Math.min(CHUNK, needed - t * CHUNK), deadline);
+				} finally {
+					done.countDown();
+				}
+			}
+		};
+		final Executor e = executor;
+		if(e != null) {
+			try {
+				for(int i = Math.min(chunks, Runtime.getRuntime().availableProcessors()) - 1; i > 0; i--) {
+					e.execute(task);
+				}
+			} catch (RejectedExecutionException ex) {
+				// the chunks left are drawn by this thread
+			}
+		}
+		task.run();
+		boolean interrupted = false;
+		while(true) {
+			try {
+				done.await();
+				break;
+			} catch (InterruptedException ex) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		// the chunks are added in their order, whatever the thread drawing them
+		for(int[][] d : drawn) {
+			for(int[] s : d) {
+				samples[nbSamples++] = s;
+			}
+		}
+	}
+
+	/**
+	 * Draw a chunk of layouts, on a parallel task
+	 * @param r generator of the chunk
+	 * @param n number of layouts wanted
+	 * @param deadline value of System.nanoTime() when the drawing stops
+	 * @return the layouts drawn
+	 */
+	private int[][] draw(GameRandom r, int n, long deadline) {
+		int[][] result = new int[n][];
+		int nb = 0;
+		final int[] order = new int[nbShips];
+		for(int attempt = 0; nb < n && attempt < ATTEMPTS * n; attempt++) {
+			if((attempt & 15) == 15 && System.nanoTime() > deadline) {
+				break;
+			}
+			final int[] s = layout(r, order);
+			if(s != null) {
+				result[nb++] = s;
+			}
+		}
+		return nb == n ? result : Arrays.copyOf(result, nb);
+	}
+
+	/**
+	 * Draw a layout : first a ship through each touched case not yet
+	 * covered, then the other ships anywhere
+	 * @param r generator to use
+	 * @param order scratch array for the order of the ships
+	 * @return the layout, or null if the ships could not be placed
+	 */
+	private int[] layout(GameRandom r, int[] order) {
+		for(int i = 0; i < nbShips; i++) {
+			final int j = r.nextInt(i + 1);
+			order[i] = order[j];
+			order[j] = i;
+		}
+		final int[] s = new int[4 * nbShips];
+		int placed = 0;
+		for(int i = 0; i < nbHits; i++) {
+			final int hx = hits[i] % size, hy = hits[i] / size;
+			if(covering(s, placed, hx, hy) >= 0) {
+				continue;
+			}
+			if(placed == nbShips || !place(r, s, placed, order[placed], hx, hy)) {
+				return null;
+			}
+			placed++;
+		}
+		for(; placed < nbShips; placed++) {
+			if(!place(r, s, placed, order[placed], -1, -1)) {
+				return null;
+			}
+		}
+		for(int p = 0; p < s.length; p += 4) {
+			if(allHit(s, p)) {
+				return null;
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * Place a ship of a layout at random
+	 * @param r generator to use
+	 * @param s the layout
+	 * @param placed number of ships already placed in the layout
+	 * @param ship index of the ship to place
+	 * @param hx abscissa of a case the ship must cover, or -1
+	 * @param hy ordinate of a case the ship must cover, or -1
+	 * @return true if the ship was placed
+	 */
+	private boolean place(GameRandom r, int[] s, int placed, int ship, int hx, int hy) {
+		for(int t = 0; t < TRIES; t++) {
+			final boolean turn = r.nextBoolean();
+			final int w = turn ? shipHeight[ship] : shipWidth[ship];
+			final int h = turn ? shipWidth[ship] : shipHeight[ship];
+			if(w > size || h > size) {
+				continue;
+			}
+			final int x = hx < 0 ? r.nextInt(size - w + 1) : hx - r.nextInt(w);
+			final int y = hy < 0 ? r.nextInt(size - h + 1) : hy - r.nextInt(h);
+			if(fits(s, placed, x, y, w, h)) {
+				final int p = 4 * placed;
+				s[p] = x;
+				s[p + 1] = y;
+				s[p + 2] = w;
+				s[p + 3] = h;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if a ship can be at this position in the layout : inside
+	 * the battlefield, not on a blocked case nor on another ship
+	 */
+	private boolean fits(int[] s, int placed, int x, int y, int w, int h) {
+		if(x < 0 || y < 0 || x + w > size || y + h > size) {
+			return false;
+		}
+		for(int p = 0; p < 4 * placed; p += 4) {
+			if(x < s[p] + s[p + 2] && s[p] < x + w && y < s[p + 1] + s[p + 3] && s[p + 1] < y + h) {
+				return false;
+			}
+		}
+		for(int cy = y; cy < y + h; cy++) {
+			for(int c = cy * size + x, end = c + w; c < end; c++) {
+				if(blocked[c]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param s a layout
+	 * @param x abscissa of a case
+	 * @param y ordinate of a case
+	 * @return index in the layout of the ship covering the case, or -1
+	 */
+	private static int covering(int[] s, int x, int y) {
+		return covering(s, s.length / 4, x, y);
+	}
+
+	private static int covering(int[] s, int placed, int x, int y) {
+		for(int p = 0; p < 4 * placed; p += 4) {
+			if(x >= s[p] && x < s[p] + s[p + 2] && y >= s[p + 1] && y < s[p + 1] + s[p + 3]) {
+				return p;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return true if all the cases of a ship of a layout are touched, so that
+	 * the ship would be sunk
+	 */
+	private boolean allHit(int[] s, int p) {
+		for(int y = s[p + 1]; y < s[p + 1] + s[p + 3]; y++) {
+			for(int c = y * size + s[p], end = c + s[p + 2]; c < end; c++) {
+				if(!hit[c]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private interface Filter {
+		boolean agrees(int[] s);
+	}
+
+	/**
+	 * Throw away the layouts disagreeing with the last shot
+	 * @param f test of the layouts to keep
+	 */
+	private void keep(Filter f) {
+		int nb = 0;
+		for(int i = 0; i < nbSamples; i++) {
+			if(f.agrees(samples[i])) {
+				samples[nb++] = samples[i];
+			}
+		}
+		Arrays.fill(samples, nb, nbSamples, null);
+		nbSamples = nb;
+	}
+
+	/**
+	 * Keep the layouts having a ship exactly where a ship was sunk, without
+	 * this ship
+	 */
+	private void keepSunk(int x, int y, int w, int h) {
+		int nb = 0;
+		for(int i = 0; i < nbSamples; i++) {
+			final int[] s = samples[i];
+			for(int p = 0; p < s.length; p += 4) {
+				if(s[p] == x && s[p + 1] == y && s[p + 2] == w && s[p + 3] == h) {
+					final int[] rest = Arrays.copyOf(s, s.length - 4);
+					if(p < rest.length) {
+						System.arraycopy(s, s.length - 4, rest, p, 4);
+					}
+					samples[nb++] = rest;
+					break;
+				}
+			}
+		}
+		Arrays.fill(samples, nb, nbSamples, null);
+		nbSamples = nb;
+	}
+
+	/**
+	 * Remove a sunk ship from the remaining ships, and block its cases
+	 * @param s the sunk ship
+	 */
+	private void sink(Ship s) {
+		for(int i = 0; i < nbShips; i++) {
+			if((shipWidth[i] == s.getWidth() && shipHeight[i] == s.getHeight())
+					|| (shipWidth[i] == s.getHeight() && shipHeight[i] == s.getWidth())) {
+				nbShips--;
+				shipWidth[i] = shipWidth[nbShips];
+				shipHeight[i] = shipHeight[nbShips];
+				break;
+			}
+		}
+		for(int y = s.getY(); y < s.getY() + s.getHeight(); y++) {
+			for(int c = y * size + s.getX(), end = c + s.getWidth(); c < end; c++) {
+				blocked[c] = true;
+				if(hit[c]) {
+					hit[c] = false;
+					for(int i = 0; i < nbHits; i++) {
+						if(hits[i] == c) {
+							hits[i] = hits[--nbHits];
+							break;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Read the shots already on a battlefield, and forget the layouts
+	 * @param b battlefield of the enemy
+	 * @throws NotInFieldException
+	 */
+	private void rebuild(BattleField b) throws NotInFieldException {
+		board = b;
+		size = b.size();
+		final int cells = size * size;
+		blocked = new boolean[cells];
+		hit = new boolean[cells];
+		hits = new int[cells];
+		nbHits = 0;
+		shipWidth = fleetWidths.clone();
+		shipHeight = fleetHeights.clone();
+		nbShips = shipWidth.length;
+		samples = new int[SAMPLES][];
+		nbSamples = 0;
+		count = new int[cells];
+		counted = new int[cells];
+
+		for(int c = 0; c < cells; c++) {
+			final int x = c % size, y = c / size;
+			if(b.touched(x, y)) {
+				if(b.getShip(x, y) == null) {
+					blocked[c] = true;
+				} else {
+					hit[c] = true;
+					hits[nbHits++] = c;
+				}
+			}
+		}
+		for(int c = 0; c < cells; c++) {
+			final int x = c % size, y = c / size;
+			if(hit[c] && b.destroyed(x, y)) {
+				sink(b.getShip(x, y));
+			}
+		}
+	}
+
+
+	@Override
+	public void setRandom(GameRandom r) {
+		rand = r;
+	}
+
+	@Override
+	public GameRandom getRandom() {
+		return rand;
+	}
+
+	@Override
+	public void setExecutor(Executor e) {
+		executor = e;
+	}
+
+	@Override
+	public String parse() {
+		return ComputerStrategyFactory.MONTE_CARLO;
+	}
+
+}
@@ -0,0 +1,224 @@
+package model.strategy;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import exception.NotPlaceableException;
+import exception.ShipException;
+import model.BattleField;
+import model.GameRandom;
+import model.ship.Ship;
+
+/**
+ * Placement strategy enumerating the legal positions of each ship.
+ *
+ * Each ship is placed at a position drawn uniformly among the positions
+ * (in both orientations) left free by the ships already placed. When a ship
+ * has no position left, the search goes back to the previous ships, so the
+ * placement only fails when no layout of the fleet exists.
+ *
+ * On large battlefields, a few positions are first drawn among all the
+ * positions of the ship and the first free one is kept, which is still a
+ * uniform draw among the free positions. The free positions are only
+ * enumerated when these draws fail.
+ *
+ */
+public class PlacementConstraintStrategy implements PlacementStrategy, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Number of random draws tried before enumerating the free positions */
+	private static final int DRAWS = 32;
+
+	private static final PlacementConstraintStrategy instance = new PlacementConstraintStrategy();
+
+	public static PlacementConstraintStrategy getInstance() {
+		return instance;
+	}
+
+	private PlacementConstraintStrategy() {
+	}
+
+
+	/**
+	 * @param bf Battle Field
+	 * @param ships list of ships
+	 * @param rand generator of the positions
+	 * @throws NotPlaceableException if no layout of the ships exists
+	 */
+	public void placeShips(BattleField bf, List<Ship> ships, GameRandom rand) throws ShipException {
+		final int size = bf.size();
+		boolean[] occupied = new boolean[size * size];
+		for(int x = 0; x < size; x++) {
+			for(int y = 0; y < size; y++) {
+				occupied[y * size + x] = bf.getShip(x, y) != null;
+			}
+		}
+
+		// biggest ships first, they have the fewest positions
+		Ship[] order = ships.toArray(new Ship[ships.size()]);
+		Arrays.sort(order, (a, b) -> b.getNbCases() - a.getNbCases());
+
+		int[] positions = new int[order.length];
+		if(!place(order, occupied, size, positions, rand)) {
+			throw new NotPlaceableException();
+		}
+
+		for(int i = 0; i < order.length; i++) {
+			final Ship s = order[i];
+			if((positions[i] & 1) == 1) {
+				s.changeOrientation();
+			}
+			final int anchor = positions[i] >> 1;
+			s.setPosition(anchor % size, anchor / size);
+			bf.placeShip(s);
+		}
+	}
+
+	/**
+	 * Place the ships one after the other, going back to the previous ship
+	 * when a ship can't be placed
+	 * @param ships ships to place
+	 * @param occupied cases occupied by the ships already placed
+	 * @param size size of the battlefield
+	 * @param positions chosen position of each ship (anchor * 2 + 1 if turned)
+	 * @param rand random generator
+	 * @return true if all the ships could be placed
+	 */
+	private boolean place(Ship[] ships, boolean[] occupied, int size, int[] positions, GameRandom rand) {
+		// free positions of each ship not tried yet, enumerated on demand
+		int[][] candidates = new int[ships.length][];
+		int[] nbCandidates = new int[ships.length];
+		boolean[] enumerate = new boolean[ships.length];
+
+		int i = 0;
+		while(i < ships.length) {
+			final Ship s = ships[i];
+			int position = enumerate[i] ? -1 : draw(s, occupied, size, rand);
+			if(position < 0) {
+				if(candidates[i] == null) {
+					candidates[i] = legalPositions(s, occupied, size);
+					nbCandidates[i] = candidates[i].length;
+					enumerate[i] = true;
+				}
+				if(nbCandidates[i] == 0) {
+					// dead end : move the previous ship
+					if(--i < 0) {
+						return false;
+					}
+					fill(ships[i], occupied, size, positions[i], false);
+					enumerate[i] = true;
+					continue;
+				}
+				final int k = rand.nextInt(nbCandidates[i]);
+				position = candidates[i][k];
+				candidates[i][k] = candidates[i][--nbCandidates[i]];
+			}
+
+			fill(s, occupied, size, position, true);
+			positions[i] = position;
+			if(++i < ships.length) {
+				candidates[i] = null;
+				enumerate[i] = false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Draw a few positions among all the positions of a ship
+	 * @param s ship to place
+	 * @param occupied cases occupied by the ships already placed
+	 * @param size size of the battlefield
+	 * @param rand random generator
+	 * @return the first free position drawn (anchor * 2 + 1 if turned), or -1
+	 */
+	private int draw(Ship s, boolean[] occupied, int size, GameRandom rand) {
+		final int w = s.getWidth(), h = s.getHeight();
+		if(w > size || h > size) {
+			return -1;
+		}
+		final int straight = (size - w + 1) * (size - h + 1);
+		final int all = w == h ? straight : 2 * straight;
+		for(int d = 0; d < DRAWS; d++) {
+			final int r = rand.nextInt(all);
+			final int o = r < straight ? 0 : 1;
+			final int pw = o == 0 ? w : h;
+			final int ph = o == 0 ? h : w;
+			final int a = r - o * straight;
+			final int x = a % (size - pw + 1), y = a / (size - pw + 1);
+			if(free(occupied, size, x, y, pw, ph)) {
+				return ((y * size + x) << 1) | o;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean free(boolean[] occupied, int size, int x, int y, int w, int h) {
+		for(int yi = y; yi < y + h; yi++) {
+			for(int c = yi * size + x, end = c + w; c < end; c++) {
+				if(occupied[c]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Enumerate the positions where a ship fits in both orientations, using
+	 * the prefix sums of the occupied cases
+	 * @param s ship to place
+	 * @param occupied cases occupied by the ships already placed
+	 * @param size size of the battlefield
+	 * @return positions of the ship (anchor * 2 + 1 if turned)
+	 */
+	private int[] legalPositions(Ship s, boolean[] occupied, int size) {
+		final int stride = size + 1;
+		int[] sums = new int[stride * stride];
+		for(int y = 0; y < size; y++) {
+			for(int x = 0; x < size; x++) {
+				sums[(y + 1) * stride + x + 1] = (occupied[y * size + x] ? 1 : 0)
+						+ sums[y * stride + x + 1] + sums[(y + 1) * stride + x] - sums[y * stride + x];
+			}
+		}
+
+		final int orientations = s.getWidth() == s.getHeight() ? 1 : 2;
+		int[] candidates = new int[orientations * size * size];
+		int n = 0;
+		for(int o = 0; o < orientations; o++) {
+			final int w = o == 0 ? s.getWidth() : s.getHeight();
+			final int h = o == 0 ? s.getHeight() : s.getWidth();
+			for(int y = 0; y + h <= size; y++) {
+				for(int x = 0; x + w <= size; x++) {
+					final int taken = sums[(y + h) * stride + x + w] - sums[y * stride + x + w]
+							- sums[(y + h) * stride + x] + sums[y * stride + x];
+					if(taken == 0) {
+						candidates[n++] = ((y * size + x) << 1) | o;
+					}
+				}
+			}
+		}
+		return Arrays.copyOf(candidates, n);
+	}
+
+	/**
+	 * Mark or unmark the cases of a ship at a position
+	 */
+	private static void fill(Ship s, boolean[] occupied, int size, int position, boolean value) {
+		final boolean turned = (position & 1) == 1;
+		final int w = turned ? s.getHeight() : s.getWidth();
+		final int h = turned ? s.getWidth() : s.getHeight();
+		final int anchor = position >> 1;
+		final int ax = anchor % size, ay = anchor / size;
+		for(int y = ay; y < ay + h; y++) {
+			Arrays.fill(occupied, y * size + ax, y * size + ax + w, value);
+		}
+	}
+
+	public String parse() {
+		return "Constraint";
+	}
+
+}
@@ -7,10 +7,13 @@ import exception.NotInFieldException;
 import exception.NotPlaceableException;
 import exception.ShipException;
 import model.BattleField;
+import model.GameRandom;
 import model.ship.Ship;
 
 public class PlacementRandomStrategy implements PlacementStrategy, Serializable {
 	
+	private static final long serialVersionUID = -5133142743557121224L;
+	
 	private static final PlacementRandomStrategy instance = new PlacementRandomStrategy();
 	
 	public static PlacementRandomStrategy getInstance() {
@@ -24,12 +27,13 @@ public class PlacementRandomStrategy implements PlacementStrategy, Serializable
 	/**
 	 * @param bf Battle Field
 	 * @param ships list of ships
+	 * @param random generator of the positions
 	 * @throws NotInFieldException 
 	 */
-	public void placeShips(BattleField bf, List<Ship> ships) throws ShipException {
+	public void placeShips(BattleField bf, List<Ship> ships, GameRandom random) throws ShipException {
 		int bfSize = bf.size();
 		for(Ship s : ships) {
-			double rand = Math.random();
+			double rand = random.nextDouble();
 			if(rand < 0.5) {
 				s.changeOrientation();
 			}
@@ -40,8 +44,8 @@ public class PlacementRandomStrategy implements PlacementStrategy, Serializable
 			int cptLoop = 0;
 			while(!placeable) {
 				int cptCases = 0;
-				int x = (int) (Math.random()*(bfSize - width));
-				int y = (int) (Math.random()*(bfSize - height));
+				int x = (int) (random.nextDouble()*(bfSize - width));
+				int y = (int) (random.nextDouble()*(bfSize - height));
 				
 				for (int i = x ; i < (x+width) ; i++) {
 					for (int j = y ; j < (y+height) ; j++) {
@@ -64,7 +68,7 @@ public class PlacementRandomStrategy implements PlacementStrategy, Serializable
 	}
 	
 	public String parse(){
-		return null;
+		return "Random";
 	}
 
 }
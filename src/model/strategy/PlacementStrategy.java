@@ -4,13 +4,30 @@ import java.util.List;
 
 import exception.ShipException;
 import model.BattleField;
+import model.GameRandom;
 import model.ship.Ship;
 
 public interface PlacementStrategy {
 	
 	public String parse();
 	
-	public void placeShips(BattleField bf, List<Ship> ships) throws ShipException;
+	/**
+	 * place the ships with a generator of their own
+	 * @param bf battlefield
+	 * @param ships ships to place
+	 * @throws ShipException
+	 */
+	public default void placeShips(BattleField bf, List<Ship> ships) throws ShipException {
+		placeShips(bf, ships, new GameRandom());
+	}
+	
+	/**
+	 * @param bf battlefield
+	 * @param ships ships to place
+	 * @param rand generator giving the positions, so that a placement can be replayed
+	 * @throws ShipException
+	 */
+	public void placeShips(BattleField bf, List<Ship> ships, GameRandom rand) throws ShipException;
 
 
 }
@@ -1,10 +1,12 @@
 package model.strategy;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.Random;
 
 import exception.NotInFieldException;
 import model.BattleField;
+import model.GameRandom;
 
 /**
  * 
@@ -13,37 +15,87 @@ import model.BattleField;
  */
 public class RandomComputerStrategy implements ComputerStrategy, Serializable {
 	
-	private static RandomComputerStrategy instance = new RandomComputerStrategy();
-	private Random rand;
+	private static final long serialVersionUID = -1850169674242371813L;
 	
-	public static RandomComputerStrategy getInstance() {
-		return instance;
-	}
+	private GameRandom random;
 	
 	
-	private RandomComputerStrategy() {
-		rand = new Random();
+	/**
+	 * Each strategy has its own generator, so that concurrent games don't
+	 * contend on it (see ComputerStrategyFactory)
+	 */
+	public RandomComputerStrategy() {
+		random = new GameRandom();
 	}
 
 	/**
 	 *  @param b Battle Field
 	 */
 	public void shot(BattleField b) throws NotInFieldException {
-		boolean findShot = false;
-		int x = -1, y = -1;
-		while(!findShot) {
-			x = rand.nextInt(b.size());
-			y = rand.nextInt(b.size());
-			if(!b.touched(x, y)) {
-				findShot = true;
+		shot(b, aim(b));
+	}
+	
+	@Override
+	public int aim(BattleField b) {
+		final int i = random.nextInt(b.untouchedCount());
+		return b.untouchedY(i) * b.size() + b.untouchedX(i);
+	}
+
+	/**
+	 * the cases of the salvo are drawn together, without replacement, then
+	 * shot in order until the battlefield is won
+	 */
+	@Override
+	public int salvo(BattleField b, int[] xs, int[] ys, byte[] results) throws NotInFieldException {
+		final int count = b.untouchedCount();
+		final int n = Math.min(xs.length, count);
+		// Floyd's sampling of n indexes of the untouched pool
+		int[] drawn = new int[n];
+		for(int j = count - n, k = 0; j < count; j++, k++) {
+			int t = random.nextInt(j + 1);
+			for(int i = 0; i < k; i++) {
+				if(drawn[i] == t) {
+					t = j;
+					break;
+				}
 			}
+			drawn[k] = t;
+		}
+		// the cases are read before the shots change the pool
+		for(int k = 0; k < n; k++) {
+			xs[k] = b.untouchedX(drawn[k]);
+			ys[k] = b.untouchedY(drawn[k]);
+		}
+		int shots = 0;
+		for(; shots < n && !b.won(); shots++) {
+			results[shots] = b.shoot(xs[shots], ys[shots]);
+		}
+		return shots;
+	}
+
+	@Override
+	public void setRandom(GameRandom r) {
+		random = r;
+	}
+
+	@Override
+	public GameRandom getRandom() {
+		return random;
+	}
+
+	/**
+	 * the saves of former versions hold a java.util.Random, which is skipped
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if(random == null) {
+			random = new GameRandom();
 		}
-		b.receiveShot(x, y);
 	}
 
 	@Override
 	public String parse() {
-		return null;
+		return ComputerStrategyFactory.RANDOM;
 	}
 
 
@@ -0,0 +1,119 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Non blocking connection exchanging frames of the protocol (see Protocol).
+ * It is only used by the thread of its selector.
+ *
+ */
+abstract class Connection {
+
+	/** Frames waiting to be written beyond which the peer is dropped */
+	private static final int MAX_OUTPUT = 1 << 20;
+
+	protected final SocketChannel channel;
+	protected SelectionKey key;
+	private final ByteBuffer in = ByteBuffer.allocate(Protocol.MAX_FRAME);
+	private ByteBuffer out = ByteBuffer.allocate(256);
+
+	/**
+	 *
+	 * @param channel channel of the connection, non blocking
+	 */
+	Connection(SocketChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * handle a frame received
+	 * @param type type of the frame
+	 * @param payload payload of the frame, only valid during the call
+	 */
+	abstract void received(byte type, ByteBuffer payload);
+
+	/**
+	 * read the bytes available and handle the complete frames
+	 * @return false if the connection is over or the peer sent a bad frame
+	 * @throws IOException
+	 */
+	boolean read() throws IOException {
+		if(channel.read(in) < 0) {
+			return false;
+		}
+		in.flip();
+		while(in.remaining() >= 2) {
+			final int length = in.getShort(in.position()) & 0xFFFF;
+			if(length == 0 || length > Protocol.MAX_FRAME - 2) {
+				return false;
+			}
+			if(in.remaining() < 2 + length) {
+				break;
+			}
+			final int end = in.position() + 2 + length;
+			in.position(in.position() + 2);
+			final byte type = in.get();
+			ByteBuffer payload = in.slice();
+			payload.limit(end - in.position());
+			in.position(end);
+			received(type, payload);
+		}
+		in.compact();
+		return true;
+	}
+
+	/**
+	 * begin a frame to send
+	 * @param type type of the frame
+	 * @param length length of the payload
+	 * @return buffer in which the payload is to be put, exactly length bytes
+	 */
+	ByteBuffer send(byte type, int length) {
+		if(out.remaining() < 3 + length) {
+			ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * out.capacity(), out.position() + 3 + length));
+			out.flip();
+			bigger.put(out);
+			out = bigger;
+		}
+		out.putShort((short) (1 + length));
+		out.put(type);
+		return out;
+	}
+
+	/**
+	 * write the frames which can be written without blocking, the selector
+	 * telling when the others can be
+	 * @return false if the peer does not read its frames
+	 * @throws IOException
+	 */
+	boolean flush() throws IOException {
+		if(out.position() > 0) {
+			out.flip();
+			channel.write(out);
+			out.compact();
+		}
+		if(key != null && key.isValid()) {
+			key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+		}
+		return out.position() <= MAX_OUTPUT;
+	}
+
+	boolean isOpen() {
+		return channel.isOpen();
+	}
+
+	void close() {
+		if(key != null) {
+			key.cancel();
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			System.err.println("Impossible to close the connection");
+		}
+	}
+
+}
@@ -0,0 +1,271 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.ModelArchive;
+
+/**
+ * Server hosting games of clients against the computer (see Protocol).
+ *
+ * A single thread runs a selector over all the connections and plays the
+ * moves on the models, so a model is never used by two threads. The
+ * computer chooses its shots on a fixed pool of threads, then the shots are
+ * given back to the thread of the selector. As a model has at most one
+ * shot being chosen, the queue of the pool is bounded by the number of
+ * sessions. The games of the sessions are kept in memory or passivated on
+ * disk by a SessionCache.
+ *
+ */
+public class GameServer implements Runnable, Closeable {
+
+	public static final int DEFAULT_MAX_SESSIONS = 50000;
+	public static final int DEFAULT_MAX_RESIDENT = 10000;
+	public static final long DEFAULT_IDLE_SECONDS = 60;
+
+	private final Selector selector;
+	private final ServerSocketChannel listener;
+	private final ExecutorService computer;
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private final SessionCache cache;
+	private final int maxSessions;
+	private int sessions;
+	private int lastId;
+	private volatile boolean running = true;
+
+	/**
+	 *
+	 * @param address address to listen to (port 0 for any free port)
+	 * @param computerThreads number of threads choosing the shots of the computer
+	 * @param maxSessions number of sessions beyond which the connections are refused
+	 * @throws IOException if the address can't be listened to
+	 */
+	public GameServer(InetSocketAddress address, int computerThreads, int maxSessions) throws IOException {
+		this(address, computerThreads, maxSessions, new SessionCache());
+	}
+
+	/**
+	 *
+	 * @param address address to listen to (port 0 for any free port)
+	 * @param computerThreads number of threads choosing the shots of the computer
+	 * @param maxSessions number of sessions beyond which the connections are refused
+	 * @param cache cache of the games of the sessions
+	 * @throws IOException if the address can't be listened to
+	 */
+	public GameServer(InetSocketAddress address, int computerThreads, int maxSessions, SessionCache cache) throws IOException {
+		this.maxSessions = maxSessions;
+		this.cache = cache;
+		selector = Selector.open();
+		listener = ServerSocketChannel.open();
+		listener.bind(address, 1024);
+		listener.configureBlocking(false);
+		listener.register(selector, SelectionKey.OP_ACCEPT);
+		final AtomicInteger count = new AtomicInteger();
+		computer = Executors.newFixedThreadPool(computerThreads, r -> {
+			Thread t = new Thread(r, "Computer-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * @return port listened to
+	 */
+	public int getPort() {
+		return listener.socket().getLocalPort();
+	}
+
+	/**
+	 * @return cache of the games, and its metrics
+	 */
+	public SessionCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * serve the clients until close() is called
+	 */
+	@Override
+	public void run() {
+		final long sweep = cache.sweepMillis();
+		try {
+			while(running) {
+				selector.select(sweep);
+				for(Runnable r; (r = tasks.poll()) != null;) {
+					r.run();
+				}
+				cache.sweep(System.nanoTime());
+				Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+				while(it.hasNext()) {
+					SelectionKey k = it.next();
+					it.remove();
+					if(!k.isValid()) {
+						continue;
+					}
+					if(k.isAcceptable()) {
+						accept();
+					} else {
+						final Session s = (Session) k.attachment();
+						try {
+							if((k.isReadable() && !s.read()) || !s.flush()) {
+								close(s);
+							}
+						} catch (IOException e) {
+							close(s);
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("The server stopped : " + e.getMessage());
+		} finally {
+			for(SelectionKey k : selector.keys()) {
+				if(k.attachment() instanceof Session) {
+					close((Session) k.attachment());
+				}
+			}
+			computer.shutdownNow();
+			try {
+				listener.close();
+				selector.close();
+			} catch (IOException e) {
+				System.err.println("Impossible to close the server");
+			}
+		}
+	}
+
+	/**
+	 * accept the new connections. A connection which fails while it is
+	 * accepted (reset by its client, no file descriptor left...) is closed
+	 * alone, the server going on with the others.
+	 */
+	private void accept() {
+		while(true) {
+			SocketChannel c = null;
+			try {
+				c = listener.accept();
+				if(c == null) {
+					return;
+				}
+				if(sessions >= maxSessions) {
+					c.close();
+					continue;
+				}
+				configure(c);
+				// the session is only created once the channel is registered
+				final SelectionKey k = c.register(selector, SelectionKey.OP_READ);
+				Session s = new Session(this, c, computer, cache, ++lastId);
+				s.key = k;
+				k.attach(s);
+				sessions++;
+			} catch (IOException e) {
+				System.err.println("Impossible to accept a connection : " + e.getMessage());
+				if(c == null) {
+					// the listener itself failed, retried on the next select
+					return;
+				}
+				try {
+					c.close();
+				} catch (IOException e2) {
+					// the connection is dropped anyway
+				}
+			}
+		}
+	}
+
+	/**
+	 * configure a connection just accepted
+	 * @param c the connection
+	 * @throws IOException if the connection can't be configured, it is then
+	 * closed
+	 */
+	protected void configure(SocketChannel c) throws IOException {
+		c.configureBlocking(false);
+		c.setOption(StandardSocketOptions.TCP_NODELAY, true);
+	}
+
+	/**
+	 * run a move of the computer on the thread of the selector, then send
+	 * its events
+	 * @param s session of the move
+	 * @param r the move
+	 */
+	void post(Session s, Runnable r) {
+		tasks.add(() -> {
+			if(s.isOpen()) {
+				r.run();
+				try {
+					if(!s.flush()) {
+						close(s);
+					}
+				} catch (IOException e) {
+					close(s);
+				}
+			}
+		});
+		selector.wakeup();
+	}
+
+	private void close(Session s) {
+		if(s.isOpen()) {
+			s.close();
+			sessions--;
+		}
+	}
+
+	/**
+	 * stop the server, closing the sessions
+	 */
+	@Override
+	public void close() {
+		running = false;
+		selector.wakeup();
+	}
+
+	/**
+	 * Start a server, printing the metrics of its cache every 10 seconds
+	 * @param args port, number of threads of the computer, maximum number of
+	 * sessions, games kept in memory, seconds before an idle game is
+	 * passivated, archive of the passivated games
+	 */
+	public static void main(String[] args) throws IOException {
+		final int port = args.length > 0 ? Integer.parseInt(args[0]) : Protocol.DEFAULT_PORT;
+		final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		final int max = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_SESSIONS;
+		final int resident = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MAX_RESIDENT;
+		final long idle = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_IDLE_SECONDS;
+		final Path file = args.length > 5 ? Paths.get(args[5]) : Files.createTempDirectory("sessions").resolve("sessions.archive");
+		final ModelArchive archive = new ModelArchive(file);
+		final SessionCache cache = new SessionCache(archive, resident, TimeUnit.SECONDS.toMillis(idle));
+		GameServer server = new GameServer(new InetSocketAddress(port), threads, max, cache);
+		System.out.printf("Listening on port %d, %d computer threads, games passivated in %s%n", server.getPort(), threads, file);
+		Timer metrics = new Timer("Metrics", true);
+		metrics.scheduleAtFixedRate(new TimerTask() {
+			@Override
+			public void run() {
+				System.out.println(cache + ", archive of " + archive.getSize() + " bytes");
+			}
+		}, 10000, 10000);
+		server.run();
+		archive.close();
+	}
+
+}
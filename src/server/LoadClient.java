@@ -0,0 +1,265 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import model.GameRandom;
+
+/**
+ * Client playing many games at once on a server, to measure the number of
+ * moves it plays per second and the time it takes to answer a move.
+ *
+ * Each connection plays its games one after the other, shooting the cells
+ * of the battlefield in a random order. A connection receiving an ERROR
+ * stops, the state of its game being unknown : its games left are not
+ * played.
+ *
+ */
+public class LoadClient {
+
+	/** Connections being established at the same time */
+	private static final int MAX_CONNECTING = 256;
+
+	private final InetSocketAddress server;
+	private final int connections;
+	private final int gamesPerConnection;
+	private final int size;
+	private final int salvo;
+	private final int strategy;
+	private final GameRandom random = new GameRandom();
+
+	private int games;
+	private int errors;
+	private long moves;
+	private long[] latencies = new long[1024];
+	private int finished;
+
+	/**
+	 *
+	 * @param server address of the server
+	 * @param connections number of connections
+	 * @param gamesPerConnection number of games played by each connection
+	 * @param size size of the battlefields
+	 * @param salvo shots by turn
+	 * @param strategy index of the strategy of the computer (see Protocol)
+	 */
+	public LoadClient(InetSocketAddress server, int connections, int gamesPerConnection, int size, int salvo, int strategy) {
+		this.server = server;
+		this.connections = connections;
+		this.gamesPerConnection = gamesPerConnection;
+		this.size = size;
+		this.salvo = salvo;
+		this.strategy = strategy;
+	}
+
+	/**
+	 * play all the games
+	 * @return the time taken, in nanoseconds
+	 * @throws IOException if the server can't be reached
+	 */
+	public long run() throws IOException {
+		final long start = System.nanoTime();
+		try(Selector selector = Selector.open()) {
+			int opened = 0, connecting = 0;
+			while(finished < connections) {
+				for(; opened < connections && connecting < MAX_CONNECTING; opened++, connecting++) {
+					SocketChannel c = SocketChannel.open();
+					c.configureBlocking(false);
+					c.setOption(StandardSocketOptions.TCP_NODELAY, true);
+					Bot b = new Bot(c);
+					b.key = c.register(selector, SelectionKey.OP_CONNECT, b);
+					c.connect(server);
+				}
+				selector.select();
+				Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+				while(it.hasNext()) {
+					SelectionKey k = it.next();
+					it.remove();
+					final Bot b = (Bot) k.attachment();
+					try {
+						if(k.isConnectable()) {
+							b.channel.finishConnect();
+							connecting--;
+							b.newGame();
+							if(!b.flush()) {
+								b.stop();
+							}
+						} else if((k.isReadable() && !b.read()) || (!b.stopped && !b.flush())) {
+							b.stop();
+						}
+					} catch (IOException e) {
+						if(k.isConnectable()) {
+							connecting--;
+						}
+						errors++;
+						b.stop();
+					}
+				}
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * @return number of games played to the end
+	 */
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 * @return number of errors sent by the server, and connections lost
+	 */
+	public int getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return number of turns played by the client
+	 */
+	public long getMoves() {
+		return moves;
+	}
+
+	/**
+	 * @param q quantile, between 0 and 1
+	 * @return time between a shot and the next TURN frame, in nanoseconds
+	 */
+	public long getLatency(double q) {
+		final int n = (int) Math.min(moves, latencies.length);
+		if(n == 0) {
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(latencies, n);
+		Arrays.sort(sorted);
+		return sorted[Math.min(n - 1, (int) (q * n))];
+	}
+
+	private void latency(long nanos) {
+		if(moves == latencies.length && moves < 1 << 24) {
+			latencies = Arrays.copyOf(latencies, 2 * latencies.length);
+		}
+		latencies[(int) (moves++ % latencies.length)] = nanos;
+	}
+
+	/**
+	 * Connection playing against the server
+	 */
+	private class Bot extends Connection {
+
+		private int gamesLeft = gamesPerConnection;
+		private int[] cells;
+		private int next;
+		private long shotTime;
+		private boolean stopped;
+
+		Bot(SocketChannel channel) {
+			super(channel);
+		}
+
+		void newGame() {
+			send(Protocol.NEW_GAME, 13).putShort((short) size).put((byte) strategy).putShort((short) salvo)
+					.putLong(random.nextLong());
+			send(Protocol.AUTO_PLACE, 0);
+			send(Protocol.START, 0);
+			shotTime = 0;
+		}
+
+		@Override
+		void received(byte type, ByteBuffer p) {
+			if(stopped) {
+				return;
+			}
+			switch(type) {
+			case Protocol.NEW_GAME:
+				shuffle(p.getShort() & 0xFFFF);
+				break;
+			case Protocol.TURN:
+				turn(p.get());
+				break;
+			case Protocol.ERROR:
+				// no TURN may follow, the game ends there
+				errors++;
+				stop();
+				break;
+			default:
+				break;
+			}
+		}
+
+		private void shuffle(int size) {
+			if(cells == null || cells.length != size * size) {
+				cells = new int[size * size];
+				for(int i = 0; i < cells.length; i++) {
+					cells[i] = i;
+				}
+			}
+			for(int i = cells.length - 1; i > 0; i--) {
+				final int j = random.nextInt(i + 1);
+				final int c = cells[i];
+				cells[i] = cells[j];
+				cells[j] = c;
+			}
+			next = 0;
+		}
+
+		private void turn(byte status) {
+			if(shotTime != 0) {
+				latency(System.nanoTime() - shotTime);
+				shotTime = 0;
+			}
+			if(status == Protocol.YOUR_TURN) {
+				final int n = Math.min(salvo, cells.length - next);
+				ByteBuffer b = send(Protocol.SHOT, 1 + 4 * n).put((byte) n);
+				for(int i = 0; i < n; i++, next++) {
+					b.putShort((short) (cells[next] % size)).putShort((short) (cells[next] / size));
+				}
+				shotTime = System.nanoTime();
+			} else {
+				games++;
+				if(--gamesLeft > 0) {
+					newGame();
+				} else {
+					stop();
+				}
+			}
+		}
+
+		void stop() {
+			if(!stopped) {
+				stopped = true;
+				finished++;
+				close();
+			}
+		}
+
+	}
+
+	/**
+	 * Play games on a server
+	 * @param args host, port, connections, games by connection, size, salvo, strategy
+	 */
+	public static void main(String[] args) throws IOException {
+		final String host = args.length > 0 ? args[0] : "localhost";
+		final int port = args.length > 1 ? Integer.parseInt(args[1]) : Protocol.DEFAULT_PORT;
+		final int connections = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+		final int games = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+		final int size = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+		final int salvo = args.length > 5 ? Integer.parseInt(args[5]) : 1;
+		final int strategy = args.length > 6 ? Integer.parseInt(args[6]) : 0;
+		LoadClient client = new LoadClient(new InetSocketAddress(host, port), connections, games, size, salvo, strategy);
+		final long time = client.run();
+		System.out.printf("%d games, %d moves in %.2f s : %.0f moves/s, %d errors%n", client.getGames(), client.getMoves(),
+				time / 1e9, client.getMoves() * 1e9 / time, client.getErrors());
+		System.out.printf("latency p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", client.getLatency(0.5) / 1e6,
+				client.getLatency(0.99) / 1e6, client.getLatency(1) / 1e6);
+	}
+
+}
@@ -0,0 +1,47 @@
+package server;
+
+/**
+ * Binary protocol between the game server and its clients.
+ *
+ * Each frame is its length (2 bytes, big endian, the type included), its
+ * type (1 byte) and its payload. The positions are 2 bytes each.
+ *
+ * Client to server :
+ * NEW_GAME size(2) strategy(1, index in ComputerStrategyFactory.getNames()) salvo(2) seed(8)
+ * PLACE ship(1, index in the ships to place) turned(1) x(2) y(2)
+ * AUTO_PLACE, the ships left to place are placed at random
+ * START, once all the ships are placed
+ * SHOT count(1) then count times x(2) y(2), at most the salvo of the game
+ *
+ * Server to client :
+ * NEW_GAME size(2) ships(1, number of ships to place)
+ * SHIP_PLACED x(2) y(2) width(1) height(1), for the ships of the player only
+ * CELL_SHOT field(1, see Model.PLAYER and Model.PC) result(1, see Ship.MISS...) x(2) y(2)
+ * STATE state(1, ordinal of Model.GameState) player(1)
+ * TURN status(1) : YOUR_TURN, WON or LOST
+ * ERROR code(1)
+ *
+ */
+public final class Protocol {
+
+	public static final int DEFAULT_PORT = 4242;
+
+	/** Largest frame, a salvo of 255 shots */
+	public static final int MAX_FRAME = 2 + 1 + 1 + 255 * 4;
+
+	// client to server
+	public static final byte NEW_GAME = 1, PLACE = 2, AUTO_PLACE = 3, START = 4, SHOT = 5;
+
+	// server to client
+	public static final byte SHIP_PLACED = 17, CELL_SHOT = 18, STATE = 19, TURN = 20, ERROR = 31;
+
+	/** Status of TURN */
+	public static final byte YOUR_TURN = 0, WON = 1, LOST = 2;
+
+	/** Codes of ERROR */
+	public static final byte BAD_FRAME = 1, NOT_YOUR_TURN = 2, BAD_MOVE = 3;
+
+	private Protocol() {
+	}
+
+}
@@ -0,0 +1,276 @@
+package server;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.concurrent.ExecutorService;
+
+import model.Model;
+import model.ModelEvent;
+import model.ship.Ship;
+import model.ship.factory.ModernShipFactory;
+import model.ship.factory.ShipFactory;
+import model.strategy.ComputerStrategyFactory;
+import model.strategy.PlacementConstraintStrategy;
+
+/**
+ * Game of a client of the server : the frames of the client are played on
+ * its model, and the events of the model are sent back to the client.
+ *
+ * The model is only used by the thread of the server, the computer choosing
+ * its shots on the executor of the server. While the game is passivated by
+ * the cache of the server, the session has no model.
+ *
+ */
+class Session extends Connection implements Observer {
+
+	/** Largest battlefield of a game */
+	static final int MAX_SIZE = 100;
+
+	private static final String[] STRATEGIES = ComputerStrategyFactory.getInstance().getNames();
+
+	private static final ShipFactory FLEET = ModernShipFactory.getInstance();
+
+	/** Smallest battlefield on which the fleet fits */
+	static final int MIN_SIZE = minSize();
+
+	private final GameServer server;
+	private final ExecutorService computer;
+	private final SessionCache cache;
+	private final int id;
+	/** game of the session, null while passivated */
+	private Model model;
+	/** A TURN frame was sent since the last shot of the client */
+	private boolean turnSent;
+
+	/**
+	 *
+	 * @param server server of the session, running the shots of the computer
+	 * @param channel channel of the client
+	 * @param computer executor choosing the shots of the computer
+	 * @param cache cache of the games of the server
+	 * @param id identifier of the session, unique in the server
+	 */
+	Session(GameServer server, SocketChannel channel, ExecutorService computer, SessionCache cache, int id) {
+		super(channel);
+		this.server = server;
+		this.computer = computer;
+		this.cache = cache;
+		this.id = id;
+		activate(new Model());
+		cache.touch(this, System.nanoTime());
+	}
+
+	int getId() {
+		return id;
+	}
+
+	Model getModel() {
+		return model;
+	}
+
+	/**
+	 * @return true if the game is in memory
+	 */
+	boolean isResident() {
+		return model != null;
+	}
+
+	/**
+	 * @return true if the computer is choosing its shot
+	 */
+	boolean isBusy() {
+		return model.getGameState() == Model.GameState.IN_GAME && !model.won() && model.currentPlayer() == Model.PC;
+	}
+
+	/**
+	 * drop the game, once written by the cache
+	 */
+	void passivate() {
+		model.setComputerThreads(null, null);
+		model.deleteObservers();
+		model = null;
+	}
+
+	/**
+	 * play a game, new or read back by the cache
+	 * @param m the game
+	 */
+	void activate(Model m) {
+		model = m;
+		model.addObserver(this);
+		model.setComputerThreads(computer, r -> server.post(this, r));
+	}
+
+	@Override
+	void received(byte type, ByteBuffer p) {
+		cache.touch(this, System.nanoTime());
+		try {
+			switch(type) {
+			case Protocol.NEW_GAME:
+				newGame(p.getShort() & 0xFFFF, p.get(), p.getShort() & 0xFFFF, p.getLong());
+				break;
+			case Protocol.PLACE:
+				place(p.get() & 0xFF, p.get() != 0, p.getShort() & 0xFFFF, p.getShort() & 0xFFFF);
+				break;
+			case Protocol.AUTO_PLACE:
+				if(model.getGameState() == Model.GameState.PLACEMENT) {
+					model.placeShipsPlayer();
+				} else {
+					error(Protocol.BAD_MOVE);
+				}
+				break;
+			case Protocol.START:
+				if(model.getGameState() != Model.GameState.PLACEMENT || !model.getShipsNoPlaced().isEmpty()
+						|| !model.getShipsPlacedComputer()) {
+					error(Protocol.BAD_MOVE);
+				} else {
+					model.setGameState(Model.GameState.IN_GAME);
+				}
+				break;
+			case Protocol.SHOT:
+				shots(p);
+				break;
+			default:
+				error(Protocol.BAD_FRAME);
+				break;
+			}
+		} catch (BufferUnderflowException e) {
+			error(Protocol.BAD_FRAME);
+		}
+	}
+
+	private void newGame(int size, int strategy, int salvo, long seed) {
+		if(size < MIN_SIZE || size > MAX_SIZE || strategy < 0 || strategy >= STRATEGIES.length || salvo < 1 || salvo > 255) {
+			error(Protocol.BAD_MOVE);
+			return;
+		}
+		turnSent = false;
+		model.newGame(size, FLEET, ComputerStrategyFactory.getInstance().newStrategy(STRATEGIES[strategy], FLEET),
+				PlacementConstraintStrategy.getInstance(), seed);
+		model.setSalvo(salvo);
+		model.placeShipComputer();
+		if(!model.getShipsPlacedComputer()) {
+			error(Protocol.BAD_MOVE);
+		}
+	}
+
+	private static int minSize() {
+		int size = 1;
+		for(Ship s : FLEET.getShips()) {
+			size = Math.max(size, Math.max(s.getWidth(), s.getHeight()));
+		}
+		return size;
+	}
+
+	private void place(int index, boolean turned, int x, int y) {
+		final List<Ship> ships = model.getShipsNoPlaced();
+		if(model.getGameState() != Model.GameState.PLACEMENT || index >= ships.size()) {
+			error(Protocol.BAD_MOVE);
+			return;
+		}
+		final Ship s = ships.get(index);
+		if(s.orientationChanged() != turned) {
+			s.changeOrientation();
+		}
+		final int size = model.getSizeBattleField();
+		if(x + s.getWidth() > size || y + s.getHeight() > size || !model.placeShip(s, x, y)) {
+			error(Protocol.BAD_MOVE);
+		}
+	}
+
+	private void shots(ByteBuffer p) {
+		final int n = p.get() & 0xFF;
+		if(n == 0 || n > model.getSalvo()) {
+			error(Protocol.BAD_MOVE);
+			return;
+		}
+		if(model.getGameState() != Model.GameState.IN_GAME || model.won() || model.currentPlayer() != Model.PLAYER) {
+			error(Protocol.NOT_YOUR_TURN);
+			return;
+		}
+		final int size = model.getSizeBattleField();
+		int[] xs = new int[n], ys = new int[n];
+		for(int i = 0; i < n; i++) {
+			xs[i] = p.getShort() & 0xFFFF;
+			ys[i] = p.getShort() & 0xFFFF;
+			if(xs[i] >= size || ys[i] >= size) {
+				error(Protocol.BAD_MOVE);
+				return;
+			}
+		}
+		turnSent = false;
+		model.shots(xs, ys);
+	}
+
+	private void error(byte code) {
+		send(Protocol.ERROR, 1).put(code);
+	}
+
+	/**
+	 * send the event of the model to the client
+	 */
+	@Override
+	public void update(Observable o, Object arg) {
+		final ModelEvent e = (ModelEvent) arg;
+		switch(e.getType()) {
+		case NEW_GAME:
+			send(Protocol.NEW_GAME, 3).putShort((short) model.getSizeBattleField())
+					.put((byte) model.getShipsNoPlaced().size());
+			break;
+		case SHIP_PLACED:
+			// the ships of the computer are secret
+			if(e.getField() == Model.PLAYER) {
+				final Ship s = e.getShip();
+				send(Protocol.SHIP_PLACED, 6).putShort((short) s.getX()).putShort((short) s.getY())
+						.put((byte) s.getWidth()).put((byte) s.getHeight());
+			}
+			break;
+		case CELL_SHOT:
+			send(Protocol.CELL_SHOT, 6).put((byte) e.getField()).put(e.getResult())
+					.putShort((short) e.getX()).putShort((short) e.getY());
+			break;
+		case STATE_CHANGED:
+			send(Protocol.STATE, 2).put((byte) model.getGameState().ordinal()).put((byte) model.currentPlayer());
+			break;
+		default:
+			break;
+		}
+		turn();
+	}
+
+	/**
+	 * tell the client when it is its turn, or the end of the game
+	 */
+	private void turn() {
+		if(turnSent || model.getGameState() != Model.GameState.IN_GAME) {
+			return;
+		}
+		byte status;
+		if(model.getOpponent().won()) {
+			status = Protocol.WON;
+		} else if(model.getAlly().won()) {
+			status = Protocol.LOST;
+		} else if(model.currentPlayer() == Model.PLAYER) {
+			status = Protocol.YOUR_TURN;
+		} else {
+			return;
+		}
+		send(Protocol.TURN, 1).put(status);
+		turnSent = true;
+	}
+
+	@Override
+	void close() {
+		cache.remove(this);
+		if(model != null) {
+			// forget the turn of the computer being chosen
+			passivate();
+		}
+		super.close();
+	}
+
+}
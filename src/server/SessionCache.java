@@ -0,0 +1,219 @@
+package server;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import model.Model;
+import model.ModelArchive;
+
+/**
+ * Games of the sessions kept in memory, the least recently used first.
+ *
+ * Beyond maxResident games, or once a game is idle for idleMillis, its model
+ * is passivated : it is saved in an archive under the id of its session
+ * and dropped, then read back on the next frame of its client. A game whose
+ * computer is choosing its shot is never passivated, so there may be more
+ * resident games than maxResident for a moment.
+ *
+ * The cache is only used by the thread of the server, the metrics may be
+ * read from any thread.
+ *
+ */
+public class SessionCache {
+
+	private final ModelArchive archive;
+	private final int maxResident;
+	private final long idleNanos;
+	/** resident sessions, and the time of their last use */
+	private final LinkedHashMap<Session, Long> resident = new LinkedHashMap<>(16, 0.75f, true);
+
+	private volatile int residentCount;
+	private volatile int passivatedCount;
+	private volatile long evictions;
+	private volatile long reloads;
+	private volatile long failures;
+	private volatile long bytesWritten;
+
+	/**
+	 *
+	 * @param archive archive of the passivated games
+	 * @param maxResident number of games kept in memory
+	 * @param idleMillis time after which an idle game is passivated, 0 for never
+	 */
+	public SessionCache(ModelArchive archive, int maxResident, long idleMillis) {
+		this.archive = archive;
+		this.maxResident = maxResident;
+		this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+	}
+
+	/**
+	 * A cache keeping all the games in memory
+	 */
+	public SessionCache() {
+		this(null, Integer.MAX_VALUE, 0);
+	}
+
+	/**
+	 * @return time between two sweeps of the idle games in milliseconds, 0
+	 * if the games are never idle
+	 */
+	long sweepMillis() {
+		return Math.max(idleNanos / 4_000_000, idleNanos > 0 ? 1 : 0);
+	}
+
+	/**
+	 * mark the game of a session as used, reading it back if it was
+	 * passivated, and passivate the least recently used games beyond
+	 * maxResident
+	 * @param s session used
+	 * @param now time of the use, see System.nanoTime()
+	 */
+	void touch(Session s, long now) {
+		if(!s.isResident()) {
+			reload(s);
+		}
+		if(resident.put(s, now) == null) {
+			residentCount = resident.size();
+		}
+		if(resident.size() > maxResident) {
+			Iterator<Session> it = resident.keySet().iterator();
+			while(resident.size() > maxResident && it.hasNext()) {
+				final Session eldest = it.next();
+				if(eldest != s && passivate(eldest)) {
+					it.remove();
+				}
+			}
+			residentCount = resident.size();
+		}
+	}
+
+	/**
+	 * passivate the games idle for too long
+	 * @param now current time, see System.nanoTime()
+	 */
+	void sweep(long now) {
+		if(idleNanos <= 0) {
+			return;
+		}
+		Iterator<Map.Entry<Session, Long>> it = resident.entrySet().iterator();
+		while(it.hasNext()) {
+			Map.Entry<Session, Long> e = it.next();
+			if(now - e.getValue() < idleNanos) {
+				break;
+			}
+			if(passivate(e.getKey())) {
+				it.remove();
+			}
+		}
+		residentCount = resident.size();
+	}
+
+	/**
+	 * forget a session which is closed
+	 * @param s the session
+	 */
+	void remove(Session s) {
+		if(resident.remove(s) != null) {
+			residentCount = resident.size();
+		} else if(!s.isResident()) {
+			passivatedCount--;
+			try {
+				archive.delete(s.getId());
+			} catch (IOException e) {
+				System.err.println("Impossible to delete the game of session " + s.getId());
+			}
+		}
+	}
+
+	private boolean passivate(Session s) {
+		if(s.isBusy()) {
+			return false;
+		}
+		final int size;
+		try {
+			size = archive.save(s.getId(), s.getModel());
+		} catch (IOException | IllegalArgumentException e) {
+			// the game stays in memory
+			System.err.println("Impossible to passivate the game of session " + s.getId());
+			failures++;
+			return false;
+		}
+		s.passivate();
+		evictions++;
+		bytesWritten += size;
+		passivatedCount++;
+		return true;
+	}
+
+	private void reload(Session s) {
+		Model m;
+		try {
+			m = archive.load(s.getId());
+			if(m == null) {
+				throw new IOException("No game of session " + s.getId());
+			}
+			archive.delete(s.getId());
+			reloads++;
+		} catch (IOException e) {
+			// the client is told its moves are wrong and can start a new game
+			System.err.println("Impossible to reload the game of session " + s.getId());
+			failures++;
+			m = new Model();
+		}
+		passivatedCount--;
+		s.activate(m);
+	}
+
+	/**
+	 * @return number of games in memory
+	 */
+	public int getResident() {
+		return residentCount;
+	}
+
+	/**
+	 * @return number of games on disk
+	 */
+	public int getPassivated() {
+		return passivatedCount;
+	}
+
+	/**
+	 * @return number of games passivated since the start
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return number of games read back since the start
+	 */
+	public long getReloads() {
+		return reloads;
+	}
+
+	/**
+	 * @return number of games which could not be written or read back
+	 */
+	public long getFailures() {
+		return failures;
+	}
+
+	/**
+	 * @return bytes written by the passivations since the start
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	@Override
+	public String toString() {
+		final long e = evictions;
+		return String.format("%d resident, %d passivated, %d evictions (%d bytes on average), %d reloads, %d failures",
+				residentCount, passivatedCount, e, e == 0 ? 0 : bytesWritten / e, reloads, failures);
+	}
+
+}
@@ -0,0 +1,179 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import javax.swing.JComponent;
+
+import model.Model;
+import model.ship.Ship;
+import view.listener.CellListener;
+
+/**
+ * Board drawn as a single component : the cases are painted from the state
+ * of the model, so the memory does not depend on the size of the battlefield.
+ * Only the cases in the clip are painted, and a change of a case only
+ * repaints this case.
+ *
+ */
+public class BoardView extends JComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Color WATER = new Color(220, 225, 235);
+	private static final Color SHIP = Color.GRAY;
+	private static final Color LINE = Color.DARK_GRAY;
+
+	/** Smallest case (in pixels) with grid lines and letters */
+	private static final int DETAILED = 8;
+
+	private final Model model;
+	private final boolean isAlly;
+	private CellListener listener;
+
+	/**
+	 *
+	 * @param mod model to show
+	 * @param ally true to show the ally battlefield, false for the opponent one
+	 */
+	public BoardView(Model mod, boolean ally) {
+		model = mod;
+		isAlly = ally;
+		setOpaque(true);
+		addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				final int x = cellAt(e.getX(), getWidth()), y = cellAt(e.getY(), getHeight());
+				if(listener != null && isEnabled() && x >= 0 && y >= 0) {
+					listener.cellClicked(x, y);
+				}
+			}
+		});
+	}
+
+	/**
+	 * set the listener of the clicks on the cases
+	 * @param l listener, or null
+	 */
+	public void setCellListener(CellListener l) {
+		listener = l;
+	}
+
+	private int fieldSize() {
+		return isAlly ? model.getAlly().size() : model.getOpponent().size();
+	}
+
+	/**
+	 * @param pixel position along an axis
+	 * @param length length of the component along this axis
+	 * @return index of the case at this position, or -1
+	 */
+	private int cellAt(int pixel, int length) {
+		if(pixel < 0 || pixel >= length) {
+			return -1;
+		}
+		return (int) ((long) pixel * fieldSize() / length);
+	}
+
+	/**
+	 * @param c index of a case (or fieldSize() for the end of the last case)
+	 * @param length length of the component along this axis
+	 * @return first pixel of the case
+	 */
+	private int edge(int c, int length) {
+		return (int) ((long) c * length / fieldSize());
+	}
+
+	/**
+	 * repaint the given cases
+	 * @param x abscissa of the first case
+	 * @param y ordinate of the first case
+	 * @param w number of cases along x
+	 * @param h number of cases along y
+	 */
+	public void repaintCells(int x, int y, int w, int h) {
+		final int x0 = edge(x, getWidth()), y0 = edge(y, getHeight());
+		repaint(x0, y0, edge(x + w, getWidth()) - x0 + 1, edge(y + h, getHeight()) - y0 + 1);
+	}
+
+	/**
+	 * repaint a case
+	 * @param x abscissa of the case
+	 * @param y ordinate of the case
+	 */
+	public void repaintCell(int x, int y) {
+		repaintCells(x, y, 1, 1);
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		final int size = fieldSize();
+		final int width = getWidth(), height = getHeight();
+		Rectangle clip = g.getClipBounds();
+		if(clip == null) {
+			clip = new Rectangle(0, 0, width, height);
+		}
+		final int xFrom = Math.max(0, cellAt(clip.x, width));
+		final int yFrom = Math.max(0, cellAt(clip.y, height));
+		final int xTo = Math.min(size - 1, cellAt(Math.min(clip.x + clip.width, width) - 1, width));
+		final int yTo = Math.min(size - 1, cellAt(Math.min(clip.y + clip.height, height) - 1, height));
+		final boolean detailed = width / size >= DETAILED && height / size >= DETAILED;
+
+		// when the cases are smaller than a pixel, one case per pixel is painted
+		g.setFont(getFont() != null ? getFont() : new Font(Font.SANS_SERIF, Font.PLAIN, 10));
+		for(int y = yFrom; y <= yTo; y = next(y, height)) {
+			final int py = edge(y, height), ph = Math.max(1, edge(y + 1, height) - py);
+			for(int x = xFrom; x <= xTo; x = next(x, width)) {
+				final int px = edge(x, width), pw = Math.max(1, edge(x + 1, width) - px);
+				paintCell(g, x, y, px, py, pw, ph, detailed);
+			}
+		}
+	}
+
+	/**
+	 * @param c index of a case
+	 * @param length length of the component along this axis
+	 * @return next case to paint : the next case, or the first case of the
+	 * next pixel when the cases are smaller than a pixel
+	 */
+	private int next(int c, int length) {
+		final int pixel = Math.max(edge(c + 1, length), edge(c, length) + 1);
+		return pixel >= length ? fieldSize() : Math.max(c + 1, cellAt(pixel, length));
+	}
+
+	/**
+	 * paint a case
+	 */
+	private void paintCell(Graphics g, int x, int y, int px, int py, int pw, int ph, boolean detailed) {
+		final boolean touched = isAlly ? model.allyTouched(x, y) : model.opponentTouched(x, y);
+		final Ship s = isAlly ? model.getAllyShip(x, y) : model.getOpponentShip(x, y);
+		String text = null;
+		if(touched) {
+			g.setColor(s != null ? Color.RED : Color.GREEN);
+			if(!isAlly) {
+				text = s != null ? "F" : "X";
+			}
+		} else {
+			g.setColor(isAlly && s != null ? SHIP : WATER);
+		}
+		if(isAlly && s != null) {
+			text = s.letter();
+		}
+		g.fillRect(px, py, pw, ph);
+
+		if(detailed) {
+			g.setColor(LINE);
+			g.drawRect(px, py, pw - 1, ph - 1);
+			if(text != null) {
+				final FontMetrics fm = g.getFontMetrics();
+				g.drawString(text, px + (pw - fm.stringWidth(text)) / 2, py + (ph + fm.getAscent() - fm.getDescent()) / 2);
+			}
+		}
+	}
+
+}
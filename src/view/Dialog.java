@@ -18,24 +18,26 @@ import model.Model;
 import model.ship.factory.ModernShipFactory;
 import model.ship.factory.ShipFactory;
 import model.strategy.ComputerStrategy;
-import model.strategy.CrossComputerStrategy;
+import model.strategy.ComputerStrategyFactory;
+import model.strategy.PlacementConstraintStrategy;
 import model.strategy.PlacementRandomStrategy;
 import model.strategy.PlacementStrategy;
-import model.strategy.RandomComputerStrategy;
 
 public class Dialog extends JDialog {
 	private static final String[] AGE_BOAT = {"Modern"};
-	private static final String[] PLACEMENT_STRATEGY = {"Random"};
-	private static final String[] ATTACK_STRATEGY = {"Random", "Cross"};
+	private static final Integer[] SIZES = {10, 12, 15, 20};
+	private static final String[] PLACEMENT_STRATEGY = {"Random", "Constraint"};
+	private static final String[] ATTACK_STRATEGY = ComputerStrategyFactory.getInstance().getNames();
 	//--
-  private JLabel ageLabel, placementLabel, strategyLabel;
+  private JLabel ageLabel, sizeLabel, placementLabel, strategyLabel;
   private JComboBox age, placement, strategy;
+  private JComboBox<Integer> size;
   private Model model;
 
   public Dialog(JFrame parent, String title, boolean modal, Model mod){
     super(parent, title, modal);
     model = mod;
-    this.setSize(550, 270);
+    this.setSize(550, 340);
     this.setLocationRelativeTo(null);
     this.setResizable(false);
     this.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
@@ -62,6 +64,17 @@ public class Dialog extends JDialog {
 	    panAge.add(ageLabel);
 	    panAge.add(age);
 	    
+	  // size of the battlefields
+	    JPanel panSize = new JPanel();
+	    panSize.setBackground(Color.white);
+	    panSize.setPreferredSize(new Dimension(300, 60));
+	    panSize.setBorder(BorderFactory.createTitledBorder("Choose the size of the battlefields"));
+	    size = new JComboBox<>(SIZES);
+	    size.setPreferredSize(new Dimension(100, 25));
+	    sizeLabel = new JLabel("Size : ");
+	    panSize.add(sizeLabel);
+	    panSize.add(size);
+	    
 	  // computer placement
 	    JPanel panPlacement = new JPanel();
 	    panPlacement.setBackground(Color.white);
@@ -97,7 +110,8 @@ public class Dialog extends JDialog {
     JButton okBouton = new JButton("OK");
     okBouton.addActionListener(new ActionListener(){
       public void actionPerformed(ActionEvent arg0) {        
-    	  model.newGame(getAge(age), getStrategy(strategy),  getPlacement(placement));
+    	  ShipFactory ships = getAge(age);
+    	  model.newGame((Integer) size.getSelectedItem(), ships, getStrategy(strategy, ships),  getPlacement(placement));
         setVisible(false);
       }
     });
@@ -115,6 +129,7 @@ public class Dialog extends JDialog {
     JPanel content = new JPanel();
     content.setBackground(Color.white);
     content.add(panAge);
+    content.add(panSize);
     content.add(panPlacement);
     content.add(panStrategy);
 
@@ -144,17 +159,12 @@ public class Dialog extends JDialog {
   /**
    * 
    * @param strategy attack strategy of the computer
+   * @param ships ships of the new game
    * @return the attack strategy of the computer to the new game
    */
-  private ComputerStrategy getStrategy(JComboBox strategy) {
+  private ComputerStrategy getStrategy(JComboBox strategy, ShipFactory ships) {
 	  String s = (String) strategy.getSelectedItem();
-	  if (s.equals("Random")) {
-		  return RandomComputerStrategy.getInstance();
-	  }
-	  if (s.equals("Cross")) {
-		  return CrossComputerStrategy.getInstance();
-	  }
-	  return null;
+	  return ComputerStrategyFactory.getInstance().newStrategy(s, ships);
   }
   
   /**
@@ -167,6 +177,9 @@ public class Dialog extends JDialog {
 	  if (s.equals("Random")) {
 		  return PlacementRandomStrategy.getInstance();
 	  }
+	  if (s.equals("Constraint")) {
+		  return PlacementConstraintStrategy.getInstance();
+	  }
 	  return null;
   }
   
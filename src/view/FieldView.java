@@ -2,17 +2,15 @@ package view;
 
 import java.awt.BorderLayout;
 import java.awt.Button;
-import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.io.File;
-import java.io.IOException;
 import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.concurrent.Executors;
 
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
@@ -25,15 +23,20 @@ import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 
 import model.Model;
+import model.ModelEvent;
 import model.ship.Ship;
+import model.strategy.ComputerStrategyFactory;
 import view.listener.AllyListener;
 import view.listener.OpponentListener;
 import view.listener.StrategyListener;
 
 public class FieldView extends JFrame implements Observer {
 
+	private static final int FRAME_RATE = 60;
+
 	private Model model;
 	
 	// MENU
@@ -46,18 +49,18 @@ public class FieldView extends JFrame implements Observer {
 
 	//MENU STRATEGY
 	private JMenu strategy;
-	private JMenuItem cross;
-	private JMenuItem random;	
 
 	// PANELS
-	private JPanel ally = new JPanel();
-	private JPanel opponent = new JPanel();
+	private BoardView ally;
+	private BoardView opponent;
 	private JPanel shipsPanel = new JPanel();
 	
 	// INTERFACE TO PLACE A SHIP
 	private JComboBox<Ship> comboShip = new JComboBox<>();
 	private JButton rotate;
 	private JButton play;
+	/** the end of the current game was shown */
+	private boolean endShown;
 	
 	// CHOOSE MENU FOR SAVE AND LOAD
 	private final JFileChooser fcSave = new JFileChooser();
@@ -71,7 +74,14 @@ public class FieldView extends JFrame implements Observer {
 	public FieldView(Model mod) {
 		
 		model = mod;
-		mod.addObserver(this);
+		// the changes of the model are shown at most FRAME_RATE times per second
+		mod.addObserver(new UpdateCoalescer(this, FRAME_RATE));
+		// the computer chooses its shots out of the event dispatch thread
+		mod.setComputerThreads(Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "Computer");
+			t.setDaemon(true);
+			return t;
+		}), SwingUtilities::invokeLater);
 		
 		setTitle("The Legendary Ships Battle");
 		setResizable(false);
@@ -101,10 +111,10 @@ public class FieldView extends JFrame implements Observer {
 				
 				if (sDial == JFileChooser.APPROVE_OPTION) {
 	                File fileToSave = fcSave.getSelectedFile();
-	                try {
-						model.save(fileToSave.getAbsolutePath());
-					} catch (IOException e1) {
-					}
+	                model.saveAsync(fileToSave.getAbsolutePath()).exceptionally(err -> {
+	                	System.err.println("Impossible to save the game");
+	                	return null;
+	                });
 
 	             }
 			}
@@ -121,11 +131,13 @@ public class FieldView extends JFrame implements Observer {
 				int lDial = fcLoad.showOpenDialog(null);
 				if (lDial == JFileChooser.APPROVE_OPTION) {
 	                File fileToLoad = fcLoad.getSelectedFile();
-	                try {
-						model.load(fileToLoad.getAbsolutePath());
-					} catch (IOException e1) {
-						//e1.printStackTrace();
-					}
+	                // the saved game replaces the current one on the event dispatch thread
+	                model.loadAsync(fileToLoad.getAbsolutePath())
+	                		.thenAccept(info -> SwingUtilities.invokeLater(() -> model.load(info)))
+	                		.exceptionally(err -> {
+	                			System.err.println("Impossible to load the file");
+	                			return null;
+	                		});
 
 	             } 
 			}
@@ -140,26 +152,26 @@ public class FieldView extends JFrame implements Observer {
 
 		// PANELS
 		// ally
+		ally = new BoardView(mod, true);
+		ally.setCellListener(new AllyListener(mod, this));
 		add(ally, BorderLayout.SOUTH);
 		ally.setPreferredSize(new Dimension(250, 250));
-		battleFieldAlly();
 
 		// opponent
+		opponent = new BoardView(mod, false);
+		opponent.setCellListener(new OpponentListener(mod));
 		add(opponent, BorderLayout.NORTH);
 		opponent.setPreferredSize(new Dimension(250, 250));
-		battleFieldOpponent();
 
 		//MENU STRATEGY
 		strategy = new JMenu("Strategy");
 		menu.add(strategy);
 		
-		cross = new JMenuItem("Cross");
-		random = new JMenuItem("Random");
-		
-		cross.addActionListener(new StrategyListener(mod));
-		random.addActionListener(new StrategyListener(mod));
-		strategy.add(cross);
-		strategy.add(random);
+		for(String name : ComputerStrategyFactory.getInstance().getNames()) {
+			JMenuItem item = new JMenuItem(name);
+			item.addActionListener(new StrategyListener(mod));
+			strategy.add(item);
+		}
 		
 		//INTERFACE TO PLACE A SHIP
 		for(Ship s : model.getShipsNoPlaced()) {
@@ -202,64 +214,9 @@ public class FieldView extends JFrame implements Observer {
 	}
 
 	/**
-	 * to create the ally battlefield
+	 * to update the interface to place the ships
 	 */
-	private void battleFieldAlly() {
-		ally.removeAll();
-		int size = model.getAlly().size();
-		ally.setLayout(new GridLayout(size, size));
-		for (int i = 0; i < size; i++) { //y
-			for (int j = 0; j < size; j++) { //x
-				JButton b = new JButton();
-				final Ship s = model.getAllyShip(j, i);
-				if(s != null) {
-					b.setEnabled(false);
-					b.setText(s.letter());
-				}
-				if(model.allyTouched(j, i)) {
-					if(s != null){
-						b.setBackground(Color.RED);
-					} else {
-						b.setBackground(Color.GREEN);
-					}					
-				}
-				ally.add(b);
-				b.addActionListener(new AllyListener(model, this, j, i));
-			}
-		}
-
-	}
-
-	/**
-	 * to create the opponent battlefield
-	 */
-	private void battleFieldOpponent() {
-		opponent.removeAll();
-		int size = model.getOpponent().size();
-		opponent.setLayout(new GridLayout(size, size));
-		for (int i = 0; i < size; i++) { //y
-			for (int j = 0; j < size; j++) { //x
-				JButton b = new JButton();
-				if(model.opponentTouched(j, i)) {
-					if(model.getOpponentShip(j, i) != null){
-						b.setText("F");
-						b.setBackground(Color.RED);
-					} else {
-						b.setText("X");
-						b.setBackground(Color.GREEN);
-					}
-					b.setEnabled(false);
-				}
-				opponent.add(b);
-				b.addActionListener(new OpponentListener(model, j, i));
-			}
-		}
-	}
-
-	/**
-	 * update method
-	 */
-	public void update(Observable o, Object arg) {
+	private void refreshControls() {
 		//update ship combobox
 		comboShip.removeAllItems();
 		for(Ship s : model.getShipsNoPlaced()) {
@@ -281,22 +238,57 @@ public class FieldView extends JFrame implements Observer {
 			comboShip.setEnabled(true);
 			rotate.setEnabled(true);	
 		}
-		
-		battleFieldAlly();
-		battleFieldOpponent();
-		
-		//pop up won
-		JOptionPane jop = new JOptionPane();
-		if(model.won() && model.currentPlayer() == Model.PLAYER) {
-			jop.showMessageDialog(null, "You Win", "Victory", JOptionPane.INFORMATION_MESSAGE, imgWin);
-			//jop.setIcon(imgWin);
+	}
+
+	/**
+	 * update method : only the cases given by the event are shown again
+	 */
+	public void update(Observable o, Object arg) {
+		final ModelEvent e = arg instanceof ModelEvent ? (ModelEvent) arg : ModelEvent.newGame();
+		switch(e.getType()) {
+		case CELL_SHOT:
+			if(e.getField() == Model.PLAYER) {
+				ally.repaintCell(e.getX(), e.getY());
+			} else {
+				opponent.repaintCell(e.getX(), e.getY());
+			}
+			// a coalesced batch may hold several sinks : the end is shown once,
+			// on a sink of the battlefield which is destroyed
+			if(!endShown && e.getResult() == Ship.SUNK
+					&& (e.getField() == Model.PC ? model.getOpponent() : model.getAlly()).won()) {
+				endShown = true;
+				showEnd(e.getField() == Model.PC);
+			}
+			break;
+		case SHIP_PLACED:
+			if(e.getField() == Model.PLAYER) {
+				final Ship s = e.getShip();
+				ally.repaintCells(s.getX(), s.getY(), s.getWidth(), s.getHeight());
+				refreshControls();
+			}
+			break;
+		case STATE_CHANGED:
+			refreshControls();
+			break;
+		case NEW_GAME:
+			endShown = false;
+			ally.repaint();
+			opponent.repaint();
+			refreshControls();
+			break;
 		}
-		if (model.won() && model.currentPlayer() == Model.PC) {
-			jop.showMessageDialog(null, "You Lose", "Defeat", JOptionPane.INFORMATION_MESSAGE, imgLose);
-			
+	}
+
+	/**
+	 * pop up at the end of the game
+	 * @param victory true if the player won
+	 */
+	private void showEnd(boolean victory) {
+		if(victory) {
+			JOptionPane.showMessageDialog(null, "You Win", "Victory", JOptionPane.INFORMATION_MESSAGE, imgWin);
+		} else {
+			JOptionPane.showMessageDialog(null, "You Lose", "Defeat", JOptionPane.INFORMATION_MESSAGE, imgLose);
 		}
-		
-		this.revalidate();
 	}
 	
 	
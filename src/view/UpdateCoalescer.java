@@ -0,0 +1,141 @@
+package view;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Observable;
+import java.util.Observer;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import model.ModelEvent;
+import model.ship.Ship;
+
+/**
+ * Observer standing between the model and a view : the events of the model,
+ * from any thread, are gathered and given to the view on the event dispatch
+ * thread at most a given number of times per second.
+ *
+ * A batch keeps a single NEW_GAME and a single STATE_CHANGED. When it holds
+ * too many shots, they are replaced by a NEW_GAME (a repaint of everything),
+ * except the shots sinking a ship.
+ *
+ */
+public class UpdateCoalescer implements Observer {
+
+	/** Number of shots of a batch beyond which everything is repainted */
+	private static final int MAX_SHOTS = 256;
+
+	private final Observer view;
+	private final long period;
+	private final Timer timer;
+
+	private List<ModelEvent> pending = new ArrayList<>();
+	private Observable source;
+	private boolean scheduled;
+	private long lastFlush;
+
+	/**
+	 *
+	 * @param view observer receiving the events on the event dispatch thread
+	 * @param frameRate maximum number of batches per second
+	 */
+	public UpdateCoalescer(Observer view, int frameRate) {
+		this.view = view;
+		this.period = 1000000000L / frameRate;
+		timer = new Timer(0, e -> flush());
+		timer.setRepeats(false);
+	}
+
+	@Override
+	public void update(Observable o, Object arg) {
+		final ModelEvent e = arg instanceof ModelEvent ? (ModelEvent) arg : ModelEvent.newGame();
+		synchronized(this) {
+			source = o;
+			pending.add(e);
+			if(scheduled) {
+				return;
+			}
+			scheduled = true;
+		}
+		SwingUtilities.invokeLater(this::schedule);
+	}
+
+	/**
+	 * start the timer, so that the batches are at least one period apart
+	 */
+	private void schedule() {
+		final long wait = lastFlush + period - System.nanoTime();
+		timer.setInitialDelay((int) Math.max(0, wait / 1000000));
+		timer.restart();
+	}
+
+	/**
+	 * give the pending events to the view
+	 */
+	private void flush() {
+		List<ModelEvent> batch;
+		Observable o;
+		synchronized(this) {
+			batch = pending;
+			o = source;
+			pending = new ArrayList<>();
+			scheduled = false;
+		}
+		lastFlush = System.nanoTime();
+		for(ModelEvent e : coalesce(batch)) {
+			view.update(o, e);
+		}
+	}
+
+	/**
+	 * merge the events of a batch
+	 * @param batch events, in the order they happened
+	 * @return the events to give to the view
+	 */
+	private static List<ModelEvent> coalesce(List<ModelEvent> batch) {
+		int shots = 0;
+		boolean newGame = false, stateChanged = false;
+		for(ModelEvent e : batch) {
+			switch(e.getType()) {
+			case CELL_SHOT:
+				shots++;
+				break;
+			case NEW_GAME:
+				newGame = true;
+				break;
+			case STATE_CHANGED:
+				stateChanged = true;
+				break;
+			default:
+				break;
+			}
+		}
+		newGame |= shots > MAX_SHOTS;
+
+		List<ModelEvent> result = new ArrayList<>();
+		if(newGame) {
+			result.add(ModelEvent.newGame());
+		} else if(stateChanged) {
+			result.add(ModelEvent.stateChanged());
+		}
+		for(ModelEvent e : batch) {
+			switch(e.getType()) {
+			case CELL_SHOT:
+				if(!newGame || e.getResult() == Ship.SUNK) {
+					result.add(e);
+				}
+				break;
+			case SHIP_PLACED:
+				if(!newGame) {
+					result.add(e);
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		return result;
+	}
+
+}
@@ -1,28 +1,21 @@
 package view.listener;
 
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.Observer;
-
 import model.Model;
 import model.ship.Ship;
 import view.FieldView;
 
-public class AllyListener implements ActionListener {
-	private int x, y;
+public class AllyListener implements CellListener {
 	private Model model;
 	private FieldView field;
 	
-	public AllyListener(Model mod, FieldView fieldView, int i, int j) {
+	public AllyListener(Model mod, FieldView fieldView) {
 		model = mod;
 		field = fieldView;
-		x = i;
-		y = j;
 	}
 	
 	
 	@Override
-	public void actionPerformed(ActionEvent arg0) {
+	public void cellClicked(int x, int y) {
 		if(model.getGameState() == Model.GameState.PLACEMENT) {
 			final Ship s = field.getCurrentShip();
 			if(s != null) {
@@ -0,0 +1,16 @@
+package view.listener;
+
+/**
+ * Listener of the clicks on the cases of a board
+ *
+ */
+public interface CellListener {
+
+	/**
+	 * a case of the board was clicked
+	 * @param x abscissa of the case
+	 * @param y ordinate of the case
+	 */
+	public void cellClicked(int x, int y);
+
+}
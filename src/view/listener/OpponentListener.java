@@ -1,28 +1,19 @@
 package view.listener;
 
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.Observer;
-
 import model.Model;
 
-public class OpponentListener implements ActionListener {
-	private int x, y;
+public class OpponentListener implements CellListener {
 	private Model model;
-	boolean buttonIsActive = true;
 	
-	public OpponentListener(Model mod, int i, int j) {
+	public OpponentListener(Model mod) {
 		model = mod;
-		x = i;
-		y = j;
 	}
 	
 	@Override
-	public void actionPerformed(ActionEvent e) {
+	public void cellClicked(int x, int y) {
 		if(model.currentPlayer() == Model.PLAYER && model.getGameState() == Model.GameState.IN_GAME && !model.won()
-				&& buttonIsActive == true) {
+				&& !model.opponentTouched(x, y)) {
 			model.shot(x, y);
-			buttonIsActive = false;
 		}
 		
 	}
@@ -2,6 +2,12 @@ package test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -10,6 +16,7 @@ import org.junit.jupiter.api.Test;
 
 import exception.NotInFieldException;
 import model.BattleField;
+import model.ship.Ship;
 import model.ship.modern.Cruiser;
 import model.ship.modern.Gondola;
 
@@ -99,6 +106,51 @@ class BattlefieldTest {
 		assertTrue(b.placeShip(c));
 	}
 	
+	@Test
+	void testPlaceShipOverlap() throws NotInFieldException {
+		BattleField b = new BattleField(10);
+		Cruiser c = new Cruiser();
+		c.setPosition(3, 1);
+		b.placeShip(c);
+		Gondola g = new Gondola();
+		g.setPosition(4, 7);
+		
+		assertFalse(b.placeShip(g));
+		assertSame(c, b.getShip(4, 8));
+	}
+	
+	@Test
+	void testPlaceShipAcrossWords() throws NotInFieldException {
+		BattleField b = new BattleField(10);
+		Cruiser c = new Cruiser();
+		c.changeOrientation();
+		c.setPosition(1, 6);
+		assertTrue(b.placeShip(c));
+		
+		for(int x=0; x < 10; x++) {
+			assertEquals(x >= 1 && x <= 8, b.getShip(x, 6) == c);
+			assertEquals(x >= 1 && x <= 8, b.getShip(x, 7) == c);
+		}
+		assertNull(b.getShip(1, 5));
+	}
+	
+	
+	/////////////////////////////////////////////////////////////
+	
+	@Test
+	void testDestroyed() throws NotInFieldException {
+		BattleField b = new BattleField(10);
+		Gondola g = new Gondola();
+		g.setPosition(5, 5);
+		b.placeShip(g);
+		b.receiveShot(5, 5);
+		assertFalse(b.destroyed(5, 5));
+		b.receiveShot(5, 6);
+		
+		assertTrue(b.destroyed(5, 5));
+		assertFalse(b.destroyed(6, 5));
+	}
+	
 	
 	/////////////////////////////////////////////////////////////
 	
@@ -146,10 +198,158 @@ class BattlefieldTest {
 		assertFalse(b.touched(1, 0));
 	}
 	
+	@Test
+	void testUntouchedPool() throws NotInFieldException {
+		BattleField b = new BattleField(10);
+		assertEquals(100, b.untouchedCount());
+		b.receiveShot(3, 4);
+		b.receiveShot(3, 4);
+		b.receiveShot(9, 9);
+		
+		assertEquals(98, b.untouchedCount());
+		for(int i=0; i < b.untouchedCount(); i++) {
+			assertFalse(b.touched(b.untouchedX(i), b.untouchedY(i)));
+		}
+	}
+	
+	@Test
+	void testUntouchedPoolEmpty() throws NotInFieldException {
+		BattleField b = new BattleField(3);
+		while(b.untouchedCount() > 0) {
+			b.receiveShot(b.untouchedX(0), b.untouchedY(0));
+		}
+		for(int x=0; x < 3; x++) {
+			for(int y=0; y < 3; y++) {
+				assertTrue(b.touched(x, y));
+			}
+		}
+	}
+	
 	@Test
 	void testTouchedOOB() throws NotInFieldException {
 		BattleField b = new BattleField(10);
 		assertThrows(NotInFieldException.class, ()->b.receiveShot(-1, 0));
 	}
 	
+	@Test
+	void testRemainingShips() throws NotInFieldException {
+		BattleField b = new BattleField(10);
+		Ship g1 = new Gondola(), g2 = new Gondola();
+		g1.setPosition(0, 0);
+		g2.setPosition(0, 5);
+		b.placeShip(g1);
+		b.placeShip(g2);
+		assertEquals(2, b.remainingShips());
+		assertEquals(4, b.remainingCells());
+		
+		b.receiveShot(0, 0);
+		b.receiveShot(0, 0);// a case shot twice is only hit once
+		assertEquals(2, b.remainingShips());
+		assertEquals(3, b.remainingCells());
+		assertFalse(g1.isDestroyed());
+		
+		b.receiveShot(0, 1);
+		assertEquals(1, b.remainingShips());
+		assertFalse(b.won());
+		
+		b.receiveShot(0, 5);
+		b.receiveShot(0, 6);
+		assertEquals(0, b.remainingShips());
+		assertEquals(0, b.remainingCells());
+		assertTrue(b.won());
+	}
+	
+	@Test
+	void testShootResults() throws NotInFieldException {
+		BattleField b = new BattleField(10);
+		Ship g = new Gondola();
+		g.setPosition(2, 2);
+		b.placeShip(g);
+		
+		assertEquals(Ship.MISS, b.shoot(0, 0));
+		assertEquals(Ship.HIT, b.shoot(2, 2));
+		assertTrue(g.isHit(2, 2));
+		assertFalse(g.isHit(2, 3));
+		assertEquals(Ship.ALREADY_HIT, b.shoot(2, 2));
+		assertEquals(Ship.SUNK, b.shoot(2, 3));
+		assertEquals(Ship.SUNK, b.lastShotResult());
+		assertEquals(Ship.ALREADY_HIT, b.shoot(2, 3));
+		assertTrue(g.isDestroyed());
+	}
+	
+	@Test
+	void testCopy() throws NotInFieldException {
+		BattleField b = new BattleField(10);
+		Gondola g = new Gondola();
+		g.setPosition(4, 4);
+		b.placeShip(g);
+		b.shoot(4, 4);
+		
+		BattleField copy = b.copy();
+		assertTrue(copy.touched(4, 4));
+		assertEquals(Ship.SUNK, copy.shoot(4, 5));
+		assertTrue(copy.won());
+		assertTrue(copy.destroyed(4, 5));
+		// the original and its ship are unchanged
+		assertFalse(b.touched(4, 5));
+		assertFalse(b.won());
+		assertFalse(g.isDestroyed());
+		assertEquals(99, b.untouchedCount());
+		
+		// a ship placed on the copy is not on the original
+		Gondola other = new Gondola();
+		other.setPosition(0, 0);
+		assertTrue(copy.placeShip(other));
+		assertNull(b.getShip(0, 0));
+		assertEquals(Ship.SUNK, b.shoot(4, 5));
+		assertTrue(g.isDestroyed());
+	}
+	
+	@Test
+	void testReceiveShots() throws NotInFieldException {
+		BattleField b = new BattleField(10);
+		Gondola g = new Gondola();
+		g.setPosition(4, 4);
+		b.placeShip(g);
+		byte[] results = new byte[4];
+		
+		// a salvo out of the field is not shot at all
+		assertThrows(NotInFieldException.class, ()-> b.receiveShots(new int[] {4, 10}, new int[] {4, 0}, results));
+		assertEquals(100, b.untouchedCount());
+		
+		assertEquals(3, b.receiveShots(new int[] {4, 0, 4, 4}, new int[] {4, 0, 5, 5}, results));
+		assertArrayEquals(new byte[] {Ship.HIT, Ship.MISS, Ship.SUNK, Ship.ALREADY_HIT}, results);
+		assertTrue(b.won());
+		assertEquals(97, b.untouchedCount());
+	}
+	
+	@Test
+	void testSerialization() throws Exception {
+		BattleField b = new BattleField(10);
+		Gondola g = new Gondola();
+		g.setPosition(4, 4);
+		b.placeShip(g);
+		b.receiveShot(4, 4);
+		b.receiveShot(0, 9);
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(b);
+		}
+		// the shots are unpacked for the stream only
+		Field touched = BattleField.class.getDeclaredField("touched");
+		touched.setAccessible(true);
+		assertNull(touched.get(b));
+		
+		try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			BattleField r = (BattleField) in.readObject();
+			assertNull(touched.get(r));
+			assertEquals(98, r.untouchedCount());
+			assertTrue(r.touched(4, 4));
+			assertTrue(r.touched(0, 9));
+			assertFalse(r.touched(9, 0));
+			assertFalse(r.destroyed(4, 5));
+		}
+	}
+	
 }
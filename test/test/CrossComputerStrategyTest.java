@@ -0,0 +1,49 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import exception.NotInFieldException;
+import model.BattleField;
+import model.GameRandom;
+import model.ship.Ship;
+import model.ship.modern.Gondola;
+import model.strategy.CrossComputerStrategy;
+
+/**
+ * Test class for CrossComputerStrategy
+ *
+ */
+class CrossComputerStrategyTest {
+	
+	/**
+	 * sinking a ship next to the one hunted does not stop the hunt
+	 */
+	@Test
+	void testAdjacentShips() throws NotInFieldException {
+		BattleField b = new BattleField(10);
+		Ship sunk = new Gondola(), hunted = new Gondola();
+		sunk.setPosition(5, 4);
+		hunted.setPosition(6, 4);
+		assertTrue(b.placeShip(sunk));
+		assertTrue(b.placeShip(hunted));
+		b.receiveShot(5, 4);
+		CrossComputerStrategy s = new CrossComputerStrategy();
+		s.setRandom(new GameRandom(1));
+		
+		s.shot(b, 5 * 10 + 6);
+		// south, east, then west where the other ship sinks
+		for(int c : new int[] {6 * 10 + 6, 5 * 10 + 7, 5 * 10 + 5}) {
+			assertEquals(c, s.aim(b));
+			s.shot(b, c);
+		}
+		assertTrue(b.destroyed(5, 5));
+		assertFalse(b.destroyed(6, 5));
+		// north finishes the ship hunted
+		assertEquals(4 * 10 + 6, s.aim(b));
+		s.shot(b, 4 * 10 + 6);
+		assertTrue(b.destroyed(6, 4));
+	}
+	
+}
@@ -0,0 +1,84 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import exception.ShipException;
+import model.GameRandom;
+import model.engine.GameEngine;
+import model.ship.Ship;
+import model.ship.factory.ModernShipFactory;
+import model.strategy.CrossComputerStrategy;
+import model.strategy.DensityComputerStrategy;
+import model.strategy.PlacementRandomStrategy;
+import model.strategy.RandomComputerStrategy;
+
+/**
+ * Test class for GameEngine
+ *
+ */
+class GameEngineTest {
+	
+	private GameEngine newEngine() throws ShipException {
+		return new GameEngine(10, ModernShipFactory.getInstance(), PlacementRandomStrategy.getInstance(),
+				new RandomComputerStrategy(), new RandomComputerStrategy());
+	}
+	
+	@Test
+	void testStepAlternatesPlayers() throws Exception {
+		GameEngine e = newEngine();
+		assertEquals(GameEngine.FIRST, e.currentPlayer());
+		
+		int r = e.step();
+		assertTrue(r == Ship.MISS || r == Ship.HIT);
+		assertEquals(GameEngine.SECOND, e.currentPlayer());
+		assertEquals(1, e.shots(GameEngine.FIRST));
+	}
+	
+	@Test
+	void testPlayToEnd() throws Exception {
+		GameEngine e = newEngine();
+		int winner = e.playToEnd();
+		
+		assertEquals(winner, e.winner());
+		assertTrue(e.getField(1 - winner).won());
+		assertFalse(e.getField(winner).won());
+		assertTrue(e.shots(winner) >= 18);
+		assertEquals(GameEngine.WON, e.step());
+	}
+	
+	@Test
+	void testDensityNeverShootsTwice() throws Exception {
+		GameEngine e = new GameEngine(10, ModernShipFactory.getInstance(), PlacementRandomStrategy.getInstance(),
+				new DensityComputerStrategy(ModernShipFactory.getInstance()),
+				new DensityComputerStrategy(ModernShipFactory.getInstance()));
+		int winner = e.playToEnd();
+		
+		int touched = 0;
+		for(int x=0; x < 10; x++) {
+			for(int y=0; y < 10; y++) {
+				if(e.getField(1 - winner).touched(x, y)) {
+					touched++;
+				}
+			}
+		}
+		assertEquals(e.shots(winner), touched);
+	}
+	
+	/**
+	 * A game drawn from a seed is the same each time
+	 */
+	@Test
+	void testSeed() throws Exception {
+		int[][] results = new int[2][];
+		for(int i = 0; i < 2; i++) {
+			GameEngine e = new GameEngine(10, ModernShipFactory.getInstance(), PlacementRandomStrategy.getInstance(),
+					new RandomComputerStrategy(), new CrossComputerStrategy(), new GameRandom(42));
+			final int winner = e.playToEnd();
+			results[i] = new int[] {winner, e.shots(GameEngine.FIRST), e.shots(GameEngine.SECOND)};
+		}
+		assertArrayEquals(results[0], results[1]);
+	}
+	
+}
@@ -0,0 +1,90 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import model.GameRandom;
+import model.Model;
+import model.ship.factory.ModernShipFactory;
+import model.strategy.ComputerStrategyFactory;
+import model.strategy.PlacementConstraintStrategy;
+
+/**
+ * Test class for GameRandom
+ *
+ */
+class GameRandomTest {
+	
+	@Test
+	void testSeed() {
+		GameRandom a = new GameRandom(42), b = new GameRandom(42);
+		GameRandom sa = a.split(), sb = b.split();
+		for(int i = 0; i < 1000; i++) {
+			final int r = a.nextInt(7);
+			assertEquals(r, b.nextInt(7));
+			assertTrue(r >= 0 && r < 7);
+			assertEquals(sa.nextLong(), sb.nextLong());
+		}
+		assertNotEquals(new GameRandom(42).nextLong(), new GameRandom(43).nextLong());
+	}
+	
+	/**
+	 * a seeded game where the player shoots the first cases one by one
+	 * @param strategy strategy of the computer
+	 * @param switched strategy chosen after 10 shots, or null
+	 * @return the game
+	 */
+	private static Model seededGame(String strategy, String switched) {
+		Model m = new Model();
+		m.newGame(20, ModernShipFactory.fleet(3, 3),
+				ComputerStrategyFactory.getInstance().newStrategy(strategy),
+				PlacementConstraintStrategy.getInstance(), 7);
+		m.placeShip(m.getShipsNoPlaced().get(0), 0, 0);
+		m.placeShipComputer();
+		m.setGameState(Model.GameState.IN_GAME);
+		for(int i = 0; i < 50; i++) {
+			if(i == 10 && switched != null) {
+				m.setStrategy(switched);
+			}
+			m.shot(i % 20, i / 20);
+		}
+		return m;
+	}
+	
+	private static void assertSameGame(Model a, Model b) {
+		for(int x = 0; x < a.getSizeBattleField(); x++) {
+			for(int y = 0; y < a.getSizeBattleField(); y++) {
+				assertEquals(a.getOpponentShip(x, y) != null, b.getOpponentShip(x, y) != null);
+				assertEquals(a.allyTouched(x, y), b.allyTouched(x, y));
+			}
+		}
+	}
+	
+	/**
+	 * Two games with the same seed and the same moves of the player are the same
+	 */
+	@Test
+	void testReplayGame() {
+		assertSameGame(seededGame(ComputerStrategyFactory.CROSS, null), seededGame(ComputerStrategyFactory.CROSS, null));
+	}
+	
+	/**
+	 * A strategy chosen during a seeded game is seeded too
+	 */
+	@Test
+	void testSwitchStrategy() {
+		assertSameGame(seededGame(ComputerStrategyFactory.CROSS, ComputerStrategyFactory.RANDOM),
+				seededGame(ComputerStrategyFactory.CROSS, ComputerStrategyFactory.RANDOM));
+	}
+	
+	/**
+	 * The Monte Carlo strategy of a seeded game does not depend on the time
+	 */
+	@Test
+	void testReplayMonteCarlo() {
+		assertSameGame(seededGame(ComputerStrategyFactory.MONTE_CARLO, null),
+				seededGame(ComputerStrategyFactory.MONTE_CARLO, null));
+	}
+	
+}
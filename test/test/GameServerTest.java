@@ -0,0 +1,123 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import model.ModelArchive;
+import server.GameServer;
+import server.LoadClient;
+import server.SessionCache;
+
+/**
+ * Test class for the game server
+ *
+ */
+class GameServerTest {
+
+	@Test
+	void testGames() throws Exception {
+		try(GameServer server = new GameServer(new InetSocketAddress("localhost", 0), 2, 1000)) {
+			Thread t = new Thread(server, "Server");
+			t.start();
+			// 20 connections playing 2 games each, with salvos and the computer shooting back
+			LoadClient client = new LoadClient(new InetSocketAddress("localhost", server.getPort()), 20, 2, 10, 3, 0);
+			client.run();
+			assertEquals(0, client.getErrors());
+			assertEquals(40, client.getGames());
+			assertTrue(client.getMoves() >= 40 * 4);
+			server.close();
+			t.join(5000);
+			assertFalse(t.isAlive());
+		}
+	}
+
+	@Test
+	void testRejectedGames() throws Exception {
+		try(GameServer server = new GameServer(new InetSocketAddress("localhost", 0), 2, 1000)) {
+			Thread t = new Thread(server, "Server");
+			t.start();
+			// a salvo of 0 shots is refused, so no TURN is ever sent
+			LoadClient client = new LoadClient(new InetSocketAddress("localhost", server.getPort()), 5, 2, 10, 0, 0);
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+				client.run();
+			});
+			assertEquals(5, client.getErrors());
+			assertEquals(0, client.getGames());
+			server.close();
+			t.join(5000);
+			assertFalse(t.isAlive());
+		}
+	}
+
+	@Test
+	void testResetConnections() throws Exception {
+		final AtomicInteger accepted = new AtomicInteger();
+		try(GameServer server = new GameServer(new InetSocketAddress("localhost", 0), 2, 1000) {
+			@Override
+			protected void configure(SocketChannel c) throws IOException {
+				// the first connections are reset while they are accepted
+				if(accepted.incrementAndGet() <= 10) {
+					throw new IOException("Connection reset by peer");
+				}
+				super.configure(c);
+			}
+		}) {
+			Thread t = new Thread(server, "Server");
+			t.start();
+			for(int i = 0; i < 10; i++) {
+				Socket s = new Socket("localhost", server.getPort());
+				s.setSoLinger(true, 0);
+				s.close();
+			}
+			LoadClient client = new LoadClient(new InetSocketAddress("localhost", server.getPort()), 5, 1, 10, 1, 0);
+			client.run();
+			assertEquals(0, client.getErrors());
+			assertEquals(5, client.getGames());
+			assertTrue(t.isAlive());
+			server.close();
+			t.join(5000);
+			assertFalse(t.isAlive());
+		}
+	}
+
+	@Test
+	void testPassivation() throws Exception {
+		Path dir = Files.createTempDirectory("sessions");
+		Path file = dir.resolve("sessions.archive");
+		ModelArchive archive = new ModelArchive(file);
+		SessionCache cache = new SessionCache(archive, 5, 0);
+		try(GameServer server = new GameServer(new InetSocketAddress("localhost", 0), 2, 1000, cache)) {
+			Thread t = new Thread(server, "Server");
+			t.start();
+			// 20 games at once with 5 in memory : the games go to disk and come back all the time
+			LoadClient client = new LoadClient(new InetSocketAddress("localhost", server.getPort()), 20, 2, 10, 3, 1);
+			client.run();
+			assertEquals(0, client.getErrors());
+			assertEquals(40, client.getGames());
+			assertTrue(cache.getEvictions() > 0);
+			assertTrue(cache.getReloads() > 0);
+			assertEquals(0, cache.getFailures());
+			server.close();
+			t.join(5000);
+			assertFalse(t.isAlive());
+			assertEquals(0, cache.getResident());
+			assertEquals(0, cache.getPassivated());
+			assertEquals(0, archive.count());
+		} finally {
+			archive.close();
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(dir);
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import model.engine.MatchResult;
+
+/**
+ * Test class for MatchResult
+ *
+ */
+class MatchResultTest {
+	
+	private static final double DELTA = 1e-9;
+	
+	@Test
+	void testResults() {
+		// the first strategy wins in 40, 10, 30 and 20 shots, the second in 7, a game is aborted
+		MatchResult r = new MatchResult("a", "b", new byte[] {0, 0, 1, -1, 0, 0}, new int[] {40, 10, 7, 99, 30, 20});
+		assertEquals("a", r.getName(0));
+		assertEquals("b", r.getName(1));
+		assertEquals(6, r.getGames());
+		assertEquals(1, r.getAborted());
+		assertEquals(4, r.wins(0));
+		assertEquals(1, r.wins(1));
+		assertEquals(0.8, r.winRate(0), DELTA);
+		assertEquals(0.2, r.winRate(1), DELTA);
+		assertEquals(25, r.meanShotsToWin(0), DELTA);
+		assertEquals(7, r.meanShotsToWin(1), DELTA);
+	}
+	
+	@Test
+	void testPercentiles() {
+		MatchResult r = new MatchResult("a", "b", new byte[] {0, 0, 1, -1, 0, 0}, new int[] {40, 10, 7, 99, 30, 20});
+		// nearest rank of 10, 20, 30, 40 : the ceil(p / 100 * 4)-th
+		assertEquals(10, r.percentileShotsToWin(0, 0));
+		assertEquals(10, r.percentileShotsToWin(0, 25));
+		assertEquals(20, r.percentileShotsToWin(0, 26));
+		assertEquals(20, r.percentileShotsToWin(0, 50));
+		assertEquals(30, r.percentileShotsToWin(0, 75));
+		assertEquals(40, r.percentileShotsToWin(0, 90));
+		assertEquals(40, r.percentileShotsToWin(0, 100));
+		// a single game won
+		assertEquals(7, r.percentileShotsToWin(1, 0));
+		assertEquals(7, r.percentileShotsToWin(1, 50));
+		assertEquals(7, r.percentileShotsToWin(1, 100));
+	}
+	
+	@Test
+	void testEmpty() {
+		MatchResult r = new MatchResult("a", "b", new byte[0], new int[0]);
+		assertEquals(0, r.getGames());
+		for(int side = 0; side < 2; side++) {
+			assertEquals(0, r.wins(side));
+			assertEquals(0, r.winRate(side), DELTA);
+			assertEquals(0, r.meanShotsToWin(side), DELTA);
+			assertEquals(0, r.percentileShotsToWin(side, 50));
+		}
+		
+		// only aborted games
+		r = new MatchResult("a", "b", new byte[] {-1, -1}, new int[2]);
+		assertEquals(2, r.getAborted());
+		assertEquals(0, r.winRate(0), DELTA);
+		assertEquals(0, r.percentileShotsToWin(1, 99));
+	}
+	
+}
@@ -0,0 +1,228 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import exception.NotInFieldException;
+import model.Model;
+import model.ModelArchive;
+import model.ship.factory.ModernShipFactory;
+import model.strategy.ComputerStrategyFactory;
+import model.strategy.PlacementConstraintStrategy;
+
+/**
+ * Test class for ModelArchive
+ *
+ */
+class ModelArchiveTest {
+
+	private Path dir;
+	private Path file;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		dir = Files.createTempDirectory("archive");
+		file = dir.resolve("games.archive");
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(dir.resolve("games.archive.compact"));
+		Files.delete(dir);
+	}
+
+	/**
+	 * @return a game whose first i shots are played
+	 */
+	private Model game(int i) {
+		Model m = new Model();
+		m.placeShipsPlayer();
+		m.placeShipComputer();
+		m.setGameState(Model.GameState.IN_GAME);
+		for(int j = 0; j < i; j++) {
+			m.shot(j % 10, j / 10);
+		}
+		return m;
+	}
+
+	private static int shots(Model m) throws NotInFieldException {
+		int n = 0;
+		for(int x = 0; x < m.getSizeBattleField(); x++) {
+			for(int y = 0; y < m.getSizeBattleField(); y++) {
+				if(m.getOpponent().touched(x, y)) {
+					n++;
+				}
+			}
+		}
+		return n;
+	}
+
+	@Test
+	void testSaveLoad() throws Exception {
+		try(ModelArchive a = new ModelArchive(file)) {
+			for(int i = 0; i < 20; i++) {
+				a.save(i, game(i));
+			}
+			assertEquals(20, a.count());
+			assertEquals(7, shots(a.load(7)));
+			assertNull(a.load(20));
+
+			a.save(7, game(12));
+			assertEquals(12, shots(a.load(7)));
+			assertTrue(a.delete(3));
+			assertFalse(a.delete(3));
+			assertFalse(a.contains(3));
+			assertTrue(a.getGarbage() > 0);
+		}
+		// the index is rebuilt from the records
+		try(ModelArchive a = new ModelArchive(file)) {
+			assertEquals(19, a.count());
+			assertNull(a.load(3));
+			assertEquals(12, shots(a.load(7)));
+			assertEquals(19, shots(a.load(19)));
+		}
+	}
+
+	@Test
+	void testCompaction() throws Exception {
+		try(ModelArchive a = new ModelArchive(file)) {
+			for(int round = 0; round < 5; round++) {
+				for(int i = 0; i < 50; i++) {
+					a.save(i, game(round));
+				}
+			}
+			for(int i = 40; i < 50; i++) {
+				a.delete(i);
+			}
+			final long size = a.getSize();
+			CompletableFuture<Void> c = a.compact();
+			// the games saved and deleted during the compaction are kept
+			a.save(0, game(9));
+			a.delete(1);
+			c.join();
+			assertTrue(a.getSize() < size / 3);
+			assertEquals(39, a.count());
+			assertEquals(9, shots(a.load(0)));
+			assertNull(a.load(1));
+			assertEquals(4, shots(a.load(39)));
+		}
+		try(ModelArchive a = new ModelArchive(file)) {
+			assertEquals(39, a.count());
+			assertEquals(9, shots(a.load(0)));
+			assertNull(a.load(1));
+			assertNull(a.load(45));
+		}
+	}
+
+	/**
+	 * a seeded game of 20 x 20 cases
+	 */
+	private static Model seededGame(String strategy, int salvo) {
+		final ModernShipFactory fleet = ModernShipFactory.fleet(3, 3);
+		Model m = new Model();
+		m.newGame(20, fleet, ComputerStrategyFactory.getInstance().newStrategy(strategy, fleet),
+				PlacementConstraintStrategy.getInstance(), 7);
+		m.placeShipsPlayer();
+		m.placeShipComputer();
+		m.setGameState(Model.GameState.IN_GAME);
+		m.setSalvo(salvo);
+		return m;
+	}
+
+	/**
+	 * @return true if a ship of the player is hit but not sunk
+	 */
+	private static boolean hunting(Model m) throws NotInFieldException {
+		for(int x = 0; x < m.getSizeBattleField(); x++) {
+			for(int y = 0; y < m.getSizeBattleField(); y++) {
+				if(m.getAllyShip(x, y) != null && m.allyTouched(x, y) && !m.getAlly().destroyed(x, y)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * play the same game twice, one of them being passivated while the
+	 * computer hunts a ship, then check both games went on the same way
+	 */
+	private void assertPassivatedHunt(String strategy, int salvo) throws Exception {
+		Model resident = seededGame(strategy, salvo);
+		Model passivated = seededGame(strategy, salvo);
+		int i = 0;
+		for(; !hunting(resident); i++) {
+			resident.shot(i % 20, i / 20);
+			passivated.shot(i % 20, i / 20);
+		}
+		try(ModelArchive a = new ModelArchive(file)) {
+			a.save(1, passivated);
+			passivated = a.load(1);
+		}
+		for(final int end = i + 30; i < end && !resident.won(); i++) {
+			resident.shot(i % 20, i / 20);
+			passivated.shot(i % 20, i / 20);
+		}
+		assertEquals(resident.won(), passivated.won());
+		for(int x = 0; x < 20; x++) {
+			for(int y = 0; y < 20; y++) {
+				assertEquals(resident.allyTouched(x, y), passivated.allyTouched(x, y));
+				assertEquals(resident.getOpponent().touched(x, y), passivated.getOpponent().touched(x, y));
+			}
+		}
+	}
+
+	@Test
+	void testPassivatedHunt() throws Exception {
+		assertPassivatedHunt(ComputerStrategyFactory.CROSS, 1);
+		assertPassivatedHunt(ComputerStrategyFactory.RANDOM, 3);
+		assertPassivatedHunt(ComputerStrategyFactory.DENSITY, 1);
+		assertPassivatedHunt(ComputerStrategyFactory.MONTE_CARLO, 2);
+	}
+
+	@Test
+	void testNotArchive() throws Exception {
+		Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+		assertThrows(IOException.class, () -> new ModelArchive(file));
+	}
+
+	/**
+	 * overwrite the length of the second record, then open the archive again
+	 */
+	private void assertCorruptedLength(int length) throws Exception {
+		Files.deleteIfExists(file);
+		final int first;
+		try(ModelArchive a = new ModelArchive(file)) {
+			first = a.save(1, game(3));
+			a.save(2, game(5));
+		}
+		try(RandomAccessFile f = new RandomAccessFile(file.toFile(), "rw")) {
+			f.seek(16 + first);
+			f.writeInt(length);
+		}
+		assertTimeoutPreemptively(Duration.ofSeconds(5),
+				() -> assertThrows(IOException.class, () -> new ModelArchive(file)));
+	}
+
+	@Test
+	void testCorruptedLength() throws Exception {
+		assertCorruptedLength(-2);
+		assertCorruptedLength(-12);
+		assertCorruptedLength(-100);
+		assertCorruptedLength(Integer.MIN_VALUE);
+		assertCorruptedLength(1000000);
+		assertCorruptedLength(Integer.MAX_VALUE);
+	}
+
+}
@@ -0,0 +1,205 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import model.BattleField;
+import model.Model;
+import model.ModelCodec;
+import model.ModelDAO;
+import model.ship.Ship;
+import model.ship.factory.ModernShipFactory;
+import model.strategy.ComputerStrategyFactory;
+import model.strategy.PlacementRandomStrategy;
+
+/**
+ * Test class for ModelCodec
+ *
+ */
+class ModelCodecTest {
+	
+	private Model playedModel() {
+		Model m = new Model();
+		for(Ship s : m.getShipsNoPlaced().toArray(new Ship[0])) {
+			if(s.getHeight() == 2) {
+				m.placeShip(s, 4, 0);
+			} else {
+				m.changeShipOrientation(s);
+				m.placeShip(s, 0, 7);
+			}
+		}
+		m.placeShipComputer();
+		m.setGameState(Model.GameState.IN_GAME);
+		for(int i=0; i < 10; i++) {
+			m.shot(i, i);
+		}
+		return m;
+	}
+	
+	@Test
+	void testRoundTrip() throws Exception {
+		Model m = playedModel();
+		ByteBuffer buf = ModelCodec.getInstance().encode(m);
+		Model r = ModelCodec.getInstance().decode(buf);
+		
+		assertEquals(m.getGameState(), r.getGameState());
+		assertEquals(m.currentPlayer(), r.currentPlayer());
+		assertEquals(m.getStrat().parse(), r.getStrat().parse());
+		assertTrue(m.getShipsNoPlaced().isEmpty());
+		assertEquals(m.getShipsNoPlaced().size(), r.getShipsNoPlaced().size());
+		for(BattleField[] f : new BattleField[][] {{m.getAlly(), r.getAlly()}, {m.getOpponent(), r.getOpponent()}}) {
+			for(int x=0; x < 10; x++) {
+				for(int y=0; y < 10; y++) {
+					assertEquals(f[0].touched(x, y), f[1].touched(x, y));
+					assertEquals(f[0].getShip(x, y) == null, f[1].getShip(x, y) == null);
+					assertEquals(f[0].destroyed(x, y), f[1].destroyed(x, y));
+				}
+			}
+		}
+	}
+	
+	@Test
+	void testSalvo() throws Exception {
+		Model m = playedModel();
+		m.setSalvo(3);
+		ByteBuffer buf = ModelCodec.getInstance().encode(m);
+		assertEquals(3, ModelCodec.getInstance().decode(buf).getSalvo());
+		
+		// version 2 : no fleet nor generators
+		buf = ByteBuffer.wrap(Files.readAllBytes(Paths.get("save-v2.souss")));
+		Model v2 = ModelCodec.getInstance().decode(buf.duplicate());
+		assertEquals(3, v2.getSalvo());
+		assertEquals(90, v2.getAlly().untouchedCount());
+		
+		// version 1 : no salvo after the size of the battlefields
+		ByteBuffer v1 = ByteBuffer.allocate(buf.remaining() - 2);
+		ByteBuffer head = buf.duplicate();
+		head.limit(4 + 1 + 3 + 4);
+		v1.put(head);
+		buf.position(head.limit() + 2);
+		v1.put(buf);
+		v1.put(4, (byte) 1);
+		v1.flip();
+		Model r = ModelCodec.getInstance().decode(v1);
+		assertEquals(1, r.getSalvo());
+		assertEquals(v2.getAlly().untouchedCount(), r.getAlly().untouchedCount());
+		for(int i=0; i < 10; i++) {
+			assertTrue(r.getOpponent().touched(i, i));
+		}
+	}
+	
+	/**
+	 * the shots of the computer in a seeded game are decoded in their order
+	 */
+	@Test
+	void testSeededOrder() throws Exception {
+		Model m = new Model();
+		m.newGame(40, ModernShipFactory.fleet(2, 2), ComputerStrategyFactory.getInstance().newStrategy(ComputerStrategyFactory.RANDOM),
+				PlacementRandomStrategy.getInstance(), 3);
+		m.placeShipsPlayer();
+		m.placeShipComputer();
+		m.setGameState(Model.GameState.IN_GAME);
+		for(int i=0; i < 300; i++) {
+			m.shot(i % 40, i / 40);
+		}
+		Model r = ModelCodec.getInstance().decode(ModelCodec.getInstance().encode(m));
+		assertEquals(m.getAlly().shotCount(), r.getAlly().shotCount());
+		for(int i=0; i < m.getAlly().shotCount(); i++) {
+			assertEquals(m.getAlly().shotCase(i), r.getAlly().shotCase(i));
+		}
+		assertEquals(m.getSizeBattleField(), r.getSizeBattleField());
+		assertEquals(4, r.getShipFactory().getShips().size());
+	}
+
+	@Test
+	void testUnknownShip() {
+		Model m = new Model();
+		m.setPeriod(() -> Collections.singletonList(new Ship() {
+			@Override
+			public String letter() {
+				return "S";
+			}
+		}));
+		assertThrows(IllegalArgumentException.class, () -> ModelCodec.getInstance().encode(m));
+	}
+	
+	@Test
+	void testCorrupted() {
+		ByteBuffer buf = ModelCodec.getInstance().encode(playedModel());
+		buf.limit(buf.limit() - 3);
+		assertThrows(IOException.class, ()-> ModelCodec.getInstance().decode(buf));
+	}
+	
+	@Test
+	void testCorruptedFile() throws Exception {
+		ByteBuffer buf = ModelCodec.getInstance().encode(playedModel());
+		// the save ends with the number of ships not placed
+		buf.putInt(buf.limit() - 4, -1);
+		byte[] bytes = new byte[buf.remaining()];
+		buf.get(bytes);
+		Path file = Files.createTempFile("corrupted", ".souss");
+		try {
+			Files.write(file, bytes);
+			assertNull(ModelDAO.getInstance().load(file.toString()));
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	void testLegacySave() throws Exception {
+		ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(Paths.get("save.souss")));
+		Model m = ModelCodec.getInstance().decode(buf);
+		
+		assertEquals(10, m.getAlly().size());
+		assertNotNull(m.getStrat());
+	}
+	
+	/**
+	 * a game in progress saved by the former format (java serialization)
+	 */
+	@Test
+	void testLegacyGameInProgress() throws Exception {
+		ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(Paths.get("save-in-game.souss")));
+		Model m = ModelCodec.getInstance().decode(buf);
+		
+		assertEquals(Model.GameState.IN_GAME, m.getGameState());
+		assertEquals(1, m.getSalvo());
+		assertTrue(m.getShipsNoPlaced().isEmpty());
+		for(int i=0; i < 10; i++) {
+			assertTrue(m.getOpponent().touched(i, i));
+		}
+		assertFalse(m.getOpponent().touched(1, 0));
+	}
+	
+	@Test
+	void testAsyncSaveLoad() throws Exception {
+		Model m = playedModel();
+		Path dir = Files.createTempDirectory("souss");
+		String fn = dir.resolve("game").toString();
+		try {
+			ModelDAO.getInstance().saveAsync(m, fn).get(5, TimeUnit.SECONDS);
+			Model r = ModelDAO.getInstance().loadAsync(fn + ".souss").get(5, TimeUnit.SECONDS);
+			
+			assertEquals(m.currentPlayer(), r.currentPlayer());
+			for(int x=0; x < 10; x++) {
+				for(int y=0; y < 10; y++) {
+					assertEquals(m.getAlly().touched(x, y), r.getAlly().touched(x, y));
+				}
+			}
+		} finally {
+			Files.deleteIfExists(Paths.get(fn + ".souss"));
+			Files.delete(dir);
+		}
+	}
+	
+}
@@ -0,0 +1,139 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import model.Model;
+import model.ModelEvent;
+import model.ship.Ship;
+import model.ship.factory.ModernShipFactory;
+import model.strategy.ComputerStrategyFactory;
+import model.strategy.PlacementRandomStrategy;
+
+/**
+ * Test class for the events of the model
+ *
+ */
+class ModelEventTest {
+	
+	@Test
+	void testEvents() {
+		Model m = new Model();
+		List<ModelEvent> events = new ArrayList<>();
+		m.addObserver((o, arg) -> events.add((ModelEvent) arg));
+		
+		Ship g = null;
+		for(Ship s : m.getShipsNoPlaced()) {
+			if(s.getHeight() == 2) {
+				g = s;
+			}
+		}
+		m.placeShip(g, 4, 0);
+		assertEquals(ModelEvent.Type.SHIP_PLACED, events.get(0).getType());
+		assertEquals(Model.PLAYER, events.get(0).getField());
+		assertSame(g, events.get(0).getShip());
+		
+		m.placeShipComputer();
+		assertEquals(ModelEvent.Type.SHIP_PLACED, events.get(1).getType());
+		assertEquals(Model.PC, events.get(1).getField());
+		
+		events.clear();
+		m.setGameState(Model.GameState.IN_GAME);
+		assertEquals(ModelEvent.Type.STATE_CHANGED, events.get(0).getType());
+		
+		events.clear();
+		m.shot(3, 3);
+		// the shot of the player, then the one of the computer
+		assertEquals(2, events.size());
+		assertEquals(ModelEvent.Type.CELL_SHOT, events.get(0).getType());
+		assertEquals(Model.PC, events.get(0).getField());
+		assertEquals(3, events.get(0).getX());
+		assertEquals(3, events.get(0).getY());
+		assertEquals(Model.PLAYER, events.get(1).getField());
+		assertTrue(m.allyTouched(events.get(1).getX(), events.get(1).getY()));
+	}
+	
+	@Test
+	void testComputerThreads() throws InterruptedException {
+		Model m = new Model();
+		LinkedBlockingQueue<Runnable> applied = new LinkedBlockingQueue<>();
+		ExecutorService worker = Executors.newSingleThreadExecutor();
+		m.setComputerThreads(worker, applied::add);
+		List<ModelEvent> events = new ArrayList<>();
+		m.addObserver((o, arg) -> events.add((ModelEvent) arg));
+		m.placeShip(m.getShipsNoPlaced().get(0), 0, 0);
+		m.placeShipComputer();
+		m.setGameState(Model.GameState.IN_GAME);
+		
+		events.clear();
+		m.shot(3, 3);
+		// only the shot of the player, the computer is choosing its shot
+		assertEquals(1, events.size());
+		assertEquals(Model.PC, m.currentPlayer());
+		applied.poll(5, TimeUnit.SECONDS).run();
+		assertEquals(2, events.size());
+		assertEquals(Model.PLAYER, events.get(1).getField());
+		assertEquals(Model.PLAYER, m.currentPlayer());
+		
+		// a shot chosen for a previous game is forgotten
+		m.shot(4, 4);
+		m.newGame(ModernShipFactory.getInstance(),
+				ComputerStrategyFactory.getInstance().newStrategy(ComputerStrategyFactory.RANDOM),
+				PlacementRandomStrategy.getInstance());
+		Runnable late = applied.poll(5, TimeUnit.SECONDS);
+		events.clear();
+		if(late != null) {
+			late.run();
+		}
+		assertTrue(events.isEmpty());
+		assertEquals(m.getAlly().size() * m.getAlly().size(), m.getAlly().untouchedCount());
+		worker.shutdownNow();
+	}
+	
+	@Test
+	void testFork() {
+		Model m = new Model();
+		m.placeShip(m.getShipsNoPlaced().get(0), 0, 0);
+		m.placeShipComputer();
+		m.setGameState(Model.GameState.IN_GAME);
+		List<ModelEvent> events = new ArrayList<>();
+		m.addObserver((o, arg) -> events.add((ModelEvent) arg));
+		
+		// the moves on the copy are neither seen nor kept by the game
+		Model copy = m.fork(ComputerStrategyFactory.getInstance().newStrategy(ComputerStrategyFactory.DENSITY));
+		copy.shot(3, 3);
+		assertTrue(copy.opponentTouched(3, 3));
+		assertEquals(99, copy.getAlly().untouchedCount());
+		assertFalse(m.opponentTouched(3, 3));
+		assertEquals(100, m.getAlly().untouchedCount());
+		assertTrue(events.isEmpty());
+	}
+	
+	@Test
+	void testSalvo() {
+		Model m = new Model();
+		m.setSalvo(3);
+		m.placeShip(m.getShipsNoPlaced().get(0), 0, 0);
+		m.placeShipComputer();
+		m.setGameState(Model.GameState.IN_GAME);
+		List<ModelEvent> events = new ArrayList<>();
+		m.addObserver((o, arg) -> events.add((ModelEvent) arg));
+		
+		m.shots(new int[] {1, 2}, new int[] {9, 9});
+		// the two shots of the player, then the three of the computer
+		assertEquals(5, events.size());
+		assertEquals(Model.PC, events.get(1).getField());
+		assertEquals(Model.PLAYER, events.get(2).getField());
+		assertEquals(97, m.getAlly().untouchedCount());
+		assertEquals(Model.PLAYER, m.currentPlayer());
+	}
+	
+}
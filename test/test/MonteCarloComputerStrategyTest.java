@@ -0,0 +1,105 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import exception.ShipException;
+import model.BattleField;
+import model.GameRandom;
+import model.ship.Ship;
+import model.ship.factory.ModernShipFactory;
+import model.ship.modern.Gondola;
+import model.strategy.ComputerStrategy;
+import model.strategy.MonteCarloComputerStrategy;
+import model.strategy.PlacementRandomStrategy;
+
+/**
+ * Test class for MonteCarloComputerStrategy
+ *
+ */
+class MonteCarloComputerStrategyTest {
+	
+	@Test
+	void testWholeGame() throws ShipException {
+		BattleField b = new BattleField(10);
+		PlacementRandomStrategy.getInstance().placeShips(b, ModernShipFactory.getInstance().getShips());
+		ComputerStrategy s = new MonteCarloComputerStrategy(ModernShipFactory.getInstance());
+		
+		// every shot is on a new case
+		int shots = 0;
+		while(!b.won()) {
+			final int c = s.aim(b);
+			assertFalse(b.touched(c % 10, c / 10));
+			s.shot(b, c);
+			shots++;
+		}
+		assertTrue(shots <= 100);
+	}
+	
+	@Test
+	void testFinishShip() throws ShipException {
+		BattleField b = new BattleField(10);
+		Ship g = new Gondola();
+		g.setPosition(4, 4);
+		b.placeShip(g);
+		ComputerStrategy s = new MonteCarloComputerStrategy(ModernShipFactory.fleet(0, 1));
+		b.shoot(4, 4);
+		
+		// the only ship goes through the touched case
+		final int c = s.aim(b);
+		assertEquals(1, Math.abs(c % 10 - 4) + Math.abs(c / 10 - 4));
+		s.shot(b, c);
+		// the gondola is found with at most the 4 cases around
+		for(int i = 0; i < 3 && !b.won(); i++) {
+			s.shot(b);
+		}
+		assertTrue(b.won());
+	}
+	
+	/**
+	 * a seeded strategy shoots the same cases on any executor, even one too
+	 * busy to help it
+	 */
+	@Test
+	void testExecutor() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		ExecutorService busy = Executors.newSingleThreadExecutor();
+		CountDownLatch release = new CountDownLatch(1);
+		busy.execute(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				// the test is over
+			}
+		});
+		try {
+			int[][] shots = new int[3][];
+			Executor[] executors = {null, pool, busy};
+			for(int e = 0; e < executors.length; e++) {
+				BattleField b = new BattleField(10);
+				PlacementRandomStrategy.getInstance().placeShips(b, ModernShipFactory.getInstance().getShips(), new GameRandom(5));
+				ComputerStrategy s = new MonteCarloComputerStrategy(ModernShipFactory.getInstance());
+				s.setRandom(new GameRandom(9));
+				s.setExecutor(executors[e]);
+				shots[e] = new int[100];
+				for(int i = 0; !b.won(); i++) {
+					shots[e][i] = s.aim(b);
+					s.shot(b, shots[e][i]);
+				}
+			}
+			assertArrayEquals(shots[0], shots[1]);
+			assertArrayEquals(shots[0], shots[2]);
+		} finally {
+			release.countDown();
+			pool.shutdown();
+			busy.shutdown();
+		}
+	}
+	
+}
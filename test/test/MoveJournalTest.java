@@ -0,0 +1,199 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import exception.NotInFieldException;
+import model.BattleField;
+import model.Model;
+import model.ModelDAO;
+import model.MoveJournal;
+import model.ship.Ship;
+import model.ship.factory.ModernShipFactory;
+import model.strategy.ComputerStrategyFactory;
+import model.strategy.PlacementConstraintStrategy;
+
+/**
+ * Test class for MoveJournal
+ *
+ */
+class MoveJournalTest {
+
+	private Path dir;
+	private String fn;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		dir = Files.createTempDirectory("souss");
+		fn = dir.resolve("game").toString();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		Files.deleteIfExists(Paths.get(fn + ".souss"));
+		Files.deleteIfExists(Paths.get(fn + ".journal"));
+		Files.delete(dir);
+	}
+
+	/**
+	 * Save a new game, then play it : the placements and the shots are only
+	 * in the journal
+	 */
+	private Model playedModel() throws IOException {
+		Model m = new Model();
+		m.save(fn);
+		for(Ship s : m.getShipsNoPlaced().toArray(new Ship[0])) {
+			if(s.getHeight() == 2) {
+				m.placeShip(s, 4, 0);
+			} else {
+				m.changeShipOrientation(s);
+				m.placeShip(s, 0, 7);
+			}
+		}
+		m.placeShipComputer();
+		m.setGameState(Model.GameState.IN_GAME);
+		for(int i=0; i < 10; i++) {
+			m.shot(i, 9 - i);
+		}
+		return m;
+	}
+
+	private void assertSameGame(Model m, Model r) throws Exception {
+		assertEquals(m.getGameState(), r.getGameState());
+		assertEquals(m.currentPlayer(), r.currentPlayer());
+		assertEquals(m.getShipsNoPlaced().size(), r.getShipsNoPlaced().size());
+		for(BattleField[] f : new BattleField[][] {{m.getAlly(), r.getAlly()}, {m.getOpponent(), r.getOpponent()}}) {
+			for(int x=0; x < f[0].size(); x++) {
+				for(int y=0; y < f[0].size(); y++) {
+					assertEquals(f[0].touched(x, y), f[1].touched(x, y));
+					assertEquals(f[0].getShip(x, y) == null, f[1].getShip(x, y) == null);
+				}
+			}
+		}
+	}
+
+	@Test
+	void testReplay() throws Exception {
+		Model m = playedModel();
+		// the game is not closed, as after a crash
+		Model r = ModelDAO.getInstance().load(fn + ".souss");
+
+		assertSameGame(m, r);
+	}
+
+	@Test
+	void testRecordCutByCrash() throws Exception {
+		Model m = playedModel();
+		// the last computer shot and half of the end of its turn are lost
+		try (RandomAccessFile f = new RandomAccessFile(fn + ".journal", "rw")) {
+			f.setLength(f.length() - MoveJournal.RECORD - MoveJournal.RECORD / 2);
+		}
+		Model r = ModelDAO.getInstance().load(fn + ".souss");
+
+		// the computer shoots again
+		assertEquals(Model.PLAYER, r.currentPlayer());
+		assertEquals(shots(m.getAlly()), shots(r.getAlly()));
+		assertEquals(m.getOpponent().touched(9, 0), r.getOpponent().touched(9, 0));
+		assertEquals(0, Files.size(Paths.get(fn + ".journal")) % MoveJournal.RECORD);
+	}
+
+	/**
+	 * a seeded game of 20 x 20 cases
+	 */
+	private static Model seededGame(int salvo) {
+		final ModernShipFactory fleet = ModernShipFactory.fleet(3, 3);
+		Model m = new Model();
+		m.newGame(20, fleet, ComputerStrategyFactory.getInstance().newStrategy(ComputerStrategyFactory.CROSS, fleet),
+				PlacementConstraintStrategy.getInstance(), 7);
+		m.placeShipsPlayer();
+		m.placeShipComputer();
+		m.setGameState(Model.GameState.IN_GAME);
+		m.setSalvo(salvo);
+		return m;
+	}
+
+	private static int shots(BattleField b) {
+		return b.size() * b.size() - b.untouchedCount();
+	}
+
+	/**
+	 * @return true if a ship of the player is hit but not sunk
+	 */
+	private static boolean hunting(Model m) throws NotInFieldException {
+		for(int x = 0; x < m.getSizeBattleField(); x++) {
+			for(int y = 0; y < m.getSizeBattleField(); y++) {
+				if(m.getAllyShip(x, y) != null && m.allyTouched(x, y) && !m.getAlly().destroyed(x, y)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Test
+	void testCrashMidSalvo() throws Exception {
+		Model m = seededGame(3);
+		m.save(fn);
+		for(int i = 0; i < 5; i++) {
+			m.shot(i, 0);
+		}
+		// the journal ends with the salvo of the computer then the end of its turn
+		final int x, y;
+		try (RandomAccessFile f = new RandomAccessFile(fn + ".journal", "rw")) {
+			f.seek(f.length() - 4 * MoveJournal.RECORD + 4);
+			x = f.readShort();
+			y = f.readShort();
+			// crash after the first shot of the salvo
+			f.setLength(f.length() - 3 * MoveJournal.RECORD);
+		}
+		Model r = ModelDAO.getInstance().load(fn + ".souss");
+
+		// the computer finished its salvo, then gave the turn to the player
+		assertEquals(Model.PLAYER, r.currentPlayer());
+		assertEquals(15, shots(r.getAlly()));
+		assertTrue(r.allyTouched(x, y));
+		assertEquals(shots(m.getOpponent()), shots(r.getOpponent()));
+		// the end of the salvo is in the journal
+		assertSameGame(r, ModelDAO.getInstance().load(fn + ".souss"));
+	}
+
+	@Test
+	void testStrategyReplayed() throws Exception {
+		Model resident = seededGame(1);
+		Model journalled = seededGame(1);
+		journalled.save(fn);
+		int i = 0;
+		for(; !hunting(resident); i++) {
+			resident.shot(i % 20, i / 20);
+			journalled.shot(i % 20, i / 20);
+		}
+		// the strategy hunting the ship and its generator go on after a crash
+		journalled = ModelDAO.getInstance().load(fn + ".souss");
+		for(final int end = i + 30; i < end && !resident.won(); i++) {
+			resident.shot(i % 20, i / 20);
+			journalled.shot(i % 20, i / 20);
+		}
+		assertSameGame(resident, journalled);
+	}
+
+	@Test
+	void testNewSnapshot() throws Exception {
+		Model m = playedModel();
+		m.save(fn);
+		assertEquals(MoveJournal.RECORD, Files.size(Paths.get(fn + ".journal")));
+		m.shot(5, 5);
+
+		Model r = ModelDAO.getInstance().load(fn + ".souss");
+		assertSameGame(m, r);
+	}
+
+}
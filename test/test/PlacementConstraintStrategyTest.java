@@ -0,0 +1,67 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import exception.NotPlaceableException;
+import exception.ShipException;
+import model.BattleField;
+import model.ship.Ship;
+import model.ship.modern.Cruiser;
+import model.ship.modern.Gondola;
+import model.strategy.PlacementConstraintStrategy;
+
+/**
+ * Test class for PlacementConstraintStrategy
+ *
+ */
+class PlacementConstraintStrategyTest {
+	
+	private static List<Ship> cruisers(int n) {
+		List<Ship> ships = new ArrayList<>();
+		for(int i=0; i < n; i++) {
+			ships.add(new Cruiser());
+		}
+		return ships;
+	}
+	
+	@Test
+	void testPlaceFullBoard() throws ShipException {
+		// 4 cruisers of 8x2 exactly cover a 8x8 battlefield
+		BattleField b = new BattleField(8);
+		List<Ship> ships = cruisers(4);
+		PlacementConstraintStrategy.getInstance().placeShips(b, ships);
+		
+		for(int x=0; x < 8; x++) {
+			for(int y=0; y < 8; y++) {
+				assertNotNull(b.getShip(x, y));
+			}
+		}
+		for(Ship s : ships) {
+			assertTrue(s.getIsPlaced());
+		}
+	}
+	
+	@Test
+	void testPlaceAroundExistingShip() throws ShipException {
+		BattleField b = new BattleField(8);
+		Gondola g = new Gondola();
+		g.setPosition(3, 3);
+		b.placeShip(g);
+		PlacementConstraintStrategy.getInstance().placeShips(b, cruisers(2));
+		
+		assertSame(g, b.getShip(3, 4));
+	}
+	
+	@Test
+	void testNotPlaceable() {
+		BattleField b = new BattleField(8);
+		assertThrows(NotPlaceableException.class,
+				()-> PlacementConstraintStrategy.getInstance().placeShips(b, cruisers(5)));
+	}
+	
+}
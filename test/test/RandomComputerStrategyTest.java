@@ -0,0 +1,55 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import model.BattleField;
+import model.GameRandom;
+import model.ship.Ship;
+import model.ship.modern.Gondola;
+import model.strategy.RandomComputerStrategy;
+
+/**
+ * Test class for RandomComputerStrategy
+ *
+ */
+class RandomComputerStrategyTest {
+	
+	/**
+	 * a salvo stops at the shot winning the battlefield
+	 */
+	@Test
+	void testSalvoStopsAtWin() throws Exception {
+		int stopped = 0;
+		for(int seed = 0; seed < 20; seed++) {
+			BattleField b = new BattleField(3);
+			Ship g = new Gondola();
+			g.setPosition(1, 1);
+			assertTrue(b.placeShip(g));
+			RandomComputerStrategy s = new RandomComputerStrategy();
+			s.setRandom(new GameRandom(seed));
+			int[] xs = new int[9], ys = new int[9];
+			byte[] results = new byte[9];
+			
+			final int n = s.salvo(b, xs, ys, results);
+			assertTrue(b.won());
+			assertEquals(Ship.SUNK, results[n - 1]);
+			assertEquals(9 - n, b.untouchedCount());
+			for(int i = 0; i < n; i++) {
+				assertTrue(b.touched(xs[i], ys[i]));
+			}
+			if(n < 9) {
+				stopped++;
+			}
+		}
+		assertTrue(stopped > 0);
+		
+		// nothing is shot on a battlefield already won
+		BattleField b = new BattleField(3);
+		RandomComputerStrategy s = new RandomComputerStrategy();
+		assertEquals(0, s.salvo(b, new int[3], new int[3], new byte[3]));
+		assertEquals(9, b.untouchedCount());
+	}
+	
+}
@@ -0,0 +1,90 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import exception.NotInFieldException;
+import model.BattleField;
+import model.engine.MatchResult;
+import model.engine.Tournament;
+import model.ship.factory.ModernShipFactory;
+import model.strategy.ComputerStrategy;
+import model.strategy.ComputerStrategyFactory;
+import model.strategy.CrossComputerStrategy;
+import model.strategy.PlacementRandomStrategy;
+import model.strategy.RandomComputerStrategy;
+
+/**
+ * Test class for Tournament
+ *
+ */
+class TournamentTest {
+	
+	/**
+	 * Strategy shooting the ships it sees : against itself the strategy
+	 * moving first wins
+	 */
+	private static class Cheater implements ComputerStrategy {
+		
+		@Override
+		public void shot(BattleField b) throws NotInFieldException {
+			for(int c = 0; c < b.size() * b.size(); c++) {
+				final int x = c % b.size(), y = c / b.size();
+				if(b.getShip(x, y) != null && !b.touched(x, y)) {
+					b.shoot(x, y);
+					return;
+				}
+			}
+		}
+		
+		@Override
+		public String parse() {
+			return "Cheater";
+		}
+	}
+	
+	@Test
+	void testFirstMoveAlternates() {
+		Tournament t = new Tournament(10, ModernShipFactory.fleet(0, 1), PlacementRandomStrategy.getInstance(), 100);
+		t.addStrategy("a", Cheater::new).addStrategy("b", Cheater::new);
+		MatchResult r = t.play("a", "b");
+		// each strategy begins, and wins, half of the games
+		assertEquals(0, r.getAborted());
+		assertEquals(50, r.wins(0));
+		assertEquals(50, r.wins(1));
+		assertEquals(2, r.percentileShotsToWin(0, 100));
+		assertEquals(2, r.meanShotsToWin(1), 1e-9);
+	}
+	
+	private static MatchResult seeded(int threads) {
+		Tournament t = new Tournament(10, ModernShipFactory.getInstance(), PlacementRandomStrategy.getInstance(), 200);
+		t.addStrategy(ComputerStrategyFactory.RANDOM, RandomComputerStrategy::new)
+				.addStrategy(ComputerStrategyFactory.CROSS, CrossComputerStrategy::new);
+		t.setSeed(42);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		t.setPool(pool);
+		try {
+			return t.run().get(0);
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	void testSeed() {
+		// the same results whatever the threads playing the games
+		MatchResult a = seeded(1), b = seeded(4);
+		for(int side = 0; side < 2; side++) {
+			assertEquals(a.wins(side), b.wins(side));
+			assertEquals(a.meanShotsToWin(side), b.meanShotsToWin(side), 1e-9);
+			for(int p : new int[] {10, 50, 90, 100}) {
+				assertEquals(a.percentileShotsToWin(side, p), b.percentileShotsToWin(side, p));
+			}
+		}
+		assertEquals(200, a.wins(0) + a.wins(1));
+	}
+	
+}
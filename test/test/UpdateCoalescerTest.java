@@ -0,0 +1,66 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Observable;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.Test;
+
+import model.ModelEvent;
+import model.ship.Ship;
+import view.UpdateCoalescer;
+
+/**
+ * Test class for UpdateCoalescer
+ *
+ */
+class UpdateCoalescerTest {
+	
+	@Test
+	void testBatches() throws Exception {
+		List<ModelEvent> received = new ArrayList<>();
+		List<Boolean> onEdt = new ArrayList<>();
+		UpdateCoalescer c = new UpdateCoalescer((o, arg) -> {
+			received.add((ModelEvent) arg);
+			onEdt.add(SwingUtilities.isEventDispatchThread());
+		}, 10);
+		Observable model = new Observable();
+		
+		for(int i=0; i < 1000; i++) {
+			c.update(model, ModelEvent.cellShot(0, i % 10, i / 100, Ship.MISS));
+		}
+		c.update(model, ModelEvent.cellShot(0, 9, 9, Ship.SUNK));
+		c.update(model, ModelEvent.stateChanged());
+		c.update(model, ModelEvent.stateChanged());
+		
+		Thread.sleep(500);
+		SwingUtilities.invokeAndWait(() -> {});
+		
+		// too many shots : everything is repainted, only the sinking shot is kept
+		assertEquals(2, received.size());
+		assertEquals(ModelEvent.Type.NEW_GAME, received.get(0).getType());
+		assertEquals(Ship.SUNK, received.get(1).getResult());
+		assertFalse(onEdt.contains(false));
+	}
+	
+	@Test
+	void testFewEventsKept() throws Exception {
+		List<ModelEvent> received = new ArrayList<>();
+		UpdateCoalescer c = new UpdateCoalescer((o, arg) -> received.add((ModelEvent) arg), 60);
+		Observable model = new Observable();
+		
+		c.update(model, ModelEvent.cellShot(1, 2, 3, Ship.HIT));
+		c.update(model, ModelEvent.cellShot(0, 4, 5, Ship.MISS));
+		Thread.sleep(200);
+		SwingUtilities.invokeAndWait(() -> {});
+		
+		assertEquals(2, received.size());
+		assertEquals(2, received.get(0).getX());
+		assertEquals(4, received.get(1).getX());
+	}
+	
+}